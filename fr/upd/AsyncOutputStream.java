@@ -0,0 +1,237 @@
+package fr.upd;
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Un flot de sortie dont les écritures sont faites par un thread séparé,
+ * de sorte qu'une sortie lente ne ralentit pas le calcul.
+ * <P>
+ * Les octets sont regroupés en blocs, placés dans une file sans verrou
+ * que vide le thread d'écriture. Lorsque la file contient trop de blocs,
+ * l'écrivain attend qu'elle se vide ou, selon la politique choisie, la
+ * laisse grandir. <code>flush()</code> attend que tout ce qui précède soit
+ * écrit. Une erreur d'entrée-sortie du thread d'écriture est signalée à
+ * l'écriture suivante ; une erreur grave (<code>Error</code>) l'arrête, et
+ * toute écriture échoue ensuite.
+ * <P>
+ * Un seul thread doit écrire sur le flot.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+final class AsyncOutputStream extends OutputStream {
+  private static final int CHUNK_SIZE = 1 << 13;
+
+  /**
+   * Un bloc d'octets ; <code>n</code> vaut <code>-1</code> pour une demande
+   * de vidage.
+   */
+  private static final class Chunk {
+    final byte bytes[];
+    int n;
+    Chunk(int size) {
+      bytes = new byte[size];
+    }
+  }
+  private static final Chunk FLUSH = new Chunk(0);
+  static {
+    FLUSH.n = -1;
+  }
+
+  private final OutputStream out;
+  private final int capacity;
+  private final boolean block;
+  private final ConcurrentLinkedQueue<Chunk> queue = new ConcurrentLinkedQueue<Chunk>();
+  private final ConcurrentLinkedQueue<Chunk> free = new ConcurrentLinkedQueue<Chunk>();
+  /**
+   * Le nombre de blocs dans la file.
+   */
+  private final AtomicInteger pending = new AtomicInteger();
+  /**
+   * Le bloc en cours de remplissage.
+   */
+  private Chunk current = null;
+  /**
+   * Le nombre de vidages demandés et effectués.
+   */
+  private long flushes = 0;
+  private volatile long flushed = 0;
+  private final Thread writer;
+  private volatile Thread producer = null;
+  private volatile IOException failure = null;
+  private volatile boolean closed = false;
+  /**
+   * Indique que le thread d'écriture s'est arrêté.
+   */
+  private volatile boolean stopped = false;
+
+  /**
+   * Crée un flot écrivant sur <code>out</code> dans un thread séparé.
+   * @param out le flot de sortie
+   * @param capacity le nombre de blocs en attente au-delà duquel la file
+   * est pleine
+   * @param block <code>true</code> pour attendre lorsque la file est
+   * pleine, <code>false</code> pour la laisser grandir
+   */
+  AsyncOutputStream(OutputStream out,int capacity,boolean block) {
+    if (out==null) throw new NullPointerException();
+    this.out = out;
+    this.capacity = Math.max(1,capacity);
+    this.block = block;
+    writer = new Thread(new Runnable() {
+        public void run() {
+          drain();
+        }
+      },"Facile-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Le travail du thread d'écriture. Un écrivain en attente est réveillé
+   * après chaque bloc, et lorsque le thread s'arrête.
+   */
+  private void drain() {
+    try {
+      drainQueue();
+    } finally {
+      stopped = true;
+      Thread p = producer;
+      if (p!=null) LockSupport.unpark(p);
+    }
+  }
+
+  private void drainQueue() {
+    for (;;) {
+      Chunk c = queue.poll();
+      if (c==null) {
+        if (closed) return;
+        LockSupport.park(this);
+        continue;
+      }
+      try {
+        if (c.n<0) {
+          out.flush();
+        } else {
+          out.write(c.bytes,0,c.n);
+          free.offer(c);
+        }
+      } catch(IOException ex) {
+        failure = ex;
+      } catch(RuntimeException ex) {
+        failure = new IOException(ex);
+      }
+      pending.decrementAndGet();
+      if (c.n<0) flushed++;
+      Thread p = producer;
+      if (p!=null) LockSupport.unpark(p);
+    }
+  }
+
+  private void check() throws IOException {
+    if (closed) throw new IOException("Stream closed");
+    if (stopped) throw new IOException("le thread d'écriture s'est arrêté");
+    IOException ex = failure;
+    if (ex!=null) {
+      failure = null;
+      throw ex;
+    }
+  }
+
+  /**
+   * Attend que la condition soit remplie, en étant réveillé par le thread
+   * d'écriture. L'écrivain est publié avant le test de la condition, et
+   * le thread d'écriture le lit après l'avoir modifiée : un réveil ne peut
+   * donc être perdu.
+   */
+  private void await(boolean room) throws IOException {
+    producer = Thread.currentThread();
+    try {
+      while (room ? pending.get()>=capacity : flushed<flushes) {
+        if (stopped) throw new IOException("le thread d'écriture s'est arrêté");
+        LockSupport.park(this);
+        if (Thread.interrupted()) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        }
+      }
+    } finally {
+      producer = null;
+    }
+  }
+
+  /**
+   * Place un bloc dans la file.
+   */
+  private void enqueue(Chunk c) throws IOException {
+    if (block && pending.get()>=capacity) await(true);
+    pending.incrementAndGet();
+    queue.offer(c);
+    LockSupport.unpark(writer);
+  }
+
+  public void write(int b) throws IOException {
+    check();
+    if (current==null) current = newChunk();
+    current.bytes[current.n++] = (byte)b;
+    if (current.n==CHUNK_SIZE) {
+      enqueue(current);
+      current = null;
+    }
+  }
+
+  public void write(byte b[],int off,int len) throws IOException {
+    check();
+    while (len>0) {
+      if (current==null) current = newChunk();
+      int k = Math.min(len,CHUNK_SIZE-current.n);
+      System.arraycopy(b,off,current.bytes,current.n,k);
+      current.n += k;
+      off += k;
+      len -= k;
+      if (current.n==CHUNK_SIZE) {
+        enqueue(current);
+        current = null;
+      }
+    }
+  }
+
+  private Chunk newChunk() {
+    Chunk c = free.poll();
+    if (c==null) c = new Chunk(CHUNK_SIZE);
+    c.n = 0;
+    return c;
+  }
+
+  /**
+   * Attend que tous les octets écrits l'aient été sur le flot de sortie,
+   * et vide ce dernier.
+   */
+  public void flush() throws IOException {
+    check();
+    if (current!=null && current.n>0) {
+      enqueue(current);
+      current = null;
+    }
+    flushes++;
+    enqueue(FLUSH);
+    await(false);
+    check();
+  }
+
+  /**
+   * Écrit tout ce qui est en attente et arrête le thread d'écriture ; le
+   * flot de sortie n'est pas fermé.
+   */
+  public void close() throws IOException {
+    if (closed) return;
+    try {
+      flush();
+    } finally {
+      closed = true;
+      LockSupport.unpark(writer);
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package fr.upd;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+
+/**
+ * Un flot de caractères lisant directement les octets d'un canal ou d'une
+ * portion de fichier projetée en mémoire.
+ * <P>
+ * En UTF-8, tant que les octets lus sont ASCII ils sont recopiés tels
+ * quels, sans passer par un décodeur. Au premier octet non ASCII la suite
+ * du flot est décodée (les séquences invalides sont remplacées, comme le
+ * fait <code>InputStreamReader</code>). Les autres codages passent
+ * toujours par un décodeur.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+final class ChannelReader extends Reader {
+  private static final int BUFFER_SIZE = 1 << 16;
+  /**
+   * Taille maximale d'une projection en mémoire.
+   */
+  private static final long MAP_SIZE = 1L << 27;
+
+  private ReadableByteChannel channel;
+  /**
+   * Le fichier projeté en mémoire (<code>null</code> pour un canal
+   * quelconque), la position dans le fichier du début de
+   * <code>bb</code> et la fin de la portion à lire.
+   */
+  private FileChannel file = null;
+  private long base;
+  private long end;
+  /**
+   * Les octets pas encore convertis, entre <code>position()</code> et
+   * <code>limit()</code>.
+   */
+  private ByteBuffer bb;
+  private final Charset charset;
+  /**
+   * Le décodeur, utilisé dès qu'un octet non ASCII a été rencontré (dès le
+   * début si le codage n'est pas UTF-8).
+   */
+  private CharsetDecoder decoder = null;
+  /**
+   * La seconde moitié d'une paire décodée pour une lecture d'un seul
+   * caractère, ou <code>-1</code>.
+   */
+  private int leftover = -1;
+  private boolean eof = false;
+  private boolean flushed = false;
+
+  /**
+   * Crée un flot lisant en UTF-8 les octets du canal donné.
+   * @param channel le canal source
+   */
+  ChannelReader(ReadableByteChannel channel) {
+    this(channel,StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Crée un flot lisant les octets du canal donné.
+   * @param channel le canal source
+   * @param charset le codage des octets
+   */
+  ChannelReader(ReadableByteChannel channel,Charset charset) {
+    if (channel==null) throw new NullPointerException();
+    this.channel = channel;
+    this.charset = charset;
+    bb = ByteBuffer.allocate(BUFFER_SIZE);
+    bb.flip();
+  }
+
+  /**
+   * Crée un flot lisant en UTF-8 les octets <code>[start,end[</code> d'un
+   * fichier, projetés en mémoire par blocs.
+   * @param file le fichier source
+   * @param start la position du premier octet à lire
+   * @param end la position qui suit le dernier octet à lire
+   */
+  ChannelReader(FileChannel file,long start,long end) {
+    this(file,start,end,StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Crée un flot lisant les octets <code>[start,end[</code> d'un fichier,
+   * projetés en mémoire par blocs.
+   * @param charset le codage des octets
+   */
+  ChannelReader(FileChannel file,long start,long end,Charset charset) {
+    if (file==null) throw new NullPointerException();
+    this.charset = charset;
+    this.channel = file;
+    this.file = file;
+    this.base = start;
+    this.end = end;
+    bb = ByteBuffer.allocate(0);
+  }
+
+  /**
+   * Lit le bloc d'octets suivant à la suite de ceux non encore convertis.
+   * @return <code>false</code> si la fin du canal est atteinte.
+   */
+  private boolean refill() throws IOException {
+    if (eof) return false;
+    if (file!=null) {
+      // projection suivante, à partir des octets non encore convertis
+      if (base+bb.limit()>=end) {
+        eof = true;
+        return false;
+      }
+      base += bb.position();
+      bb = file.map(FileChannel.MapMode.READ_ONLY,base,Math.min(end-base,MAP_SIZE));
+      return true;
+    }
+    bb.compact();
+    int n;
+    try {
+      do {
+        n = channel.read(bb);
+      } while (n==0);
+    } finally {
+      bb.flip();
+    }
+    if (n<0) eof = true;
+    return n>0;
+  }
+
+  public int read(char c[],int off,int len) throws IOException {
+    if (len==0) return 0;
+    if (leftover>=0) {
+      c[off] = (char)leftover;
+      leftover = -1;
+      return 1;
+    }
+    if (decoder==null && !charset.equals(StandardCharsets.UTF_8)) startDecoder();
+    if (decoder!=null) return decode(c,off,len);
+    if (!bb.hasRemaining() && !refill()) return -1;
+    int p = bb.position();
+    int n = Math.min(len,bb.remaining());
+    int k = 0;
+    if (bb.hasArray()) {
+      byte a[] = bb.array();
+      p += bb.arrayOffset();
+      while (k<n && a[p+k]>=0) {
+        c[off+k] = (char)a[p+k];
+        k++;
+      }
+    } else {
+      byte b;
+      while (k<n && (b = bb.get(p+k))>=0) {
+        c[off+k] = (char)b;
+        k++;
+      }
+    }
+    bb.position(bb.position()+k);
+    if (k>0) return k;
+    startDecoder();
+    return decode(c,off,len);
+  }
+
+  private void startDecoder() {
+    decoder = charset.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  /**
+   * Décode au moins un caractère, sauf en fin de flot.
+   */
+  private int decode(char c[],int off,int len) throws IOException {
+    if (flushed) return -1;
+    if (len==1) {
+      // un caractère hors du plan de base demande deux places
+      char pair[] = new char[2];
+      int n = decode(pair,0,2);
+      if (n<=0) return n;
+      c[off] = pair[0];
+      if (n==2) leftover = pair[1];
+      return 1;
+    }
+    CharBuffer cb = CharBuffer.wrap(c,off,len);
+    for (;;) {
+      CoderResult r = decoder.decode(bb,cb,eof);
+      if (eof && r.isUnderflow()) flushed = decoder.flush(cb).isUnderflow();
+      int n = cb.position()-off;
+      if (n>0) return n;
+      if (flushed) return -1;
+      if (r.isOverflow()) throw new IOException("tampon trop petit pour décoder un caractère");
+      refill();
+    }
+  }
+
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,301 @@
+package fr.upd;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Tri des lignes d'un fichier plus gros que la mémoire disponible.
+ * <P>
+ * Le fichier est lu par morceaux d'une taille estimée bornée ; chaque
+ * morceau est trié en parallèle (<code>Arrays.parallelSort</code>, tri
+ * stable) puis écrit dans un fichier temporaire. Les morceaux sont ensuite
+ * fusionnés à l'aide d'un tas, par groupes de <code>MAX_FANIN</code> au
+ * plus. Les lignes égales pour l'ordre choisi restent dans leur ordre
+ * d'origine ; en mode sans doublons seule la première est conservée.
+ * <P>
+ * En ordre numérique, la clé d'une ligne est le nombre qui la commence
+ * (après d'éventuels blancs) ; les lignes dont la clé n'est pas un nombre
+ * sont placées à la fin, et ne sont jamais considérées comme des doublons.
+ * Une clé entière est comparée comme un <code>long</code>, sans perte de
+ * précision au-delà de 2<sup>53</sup>.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+final class ExternalSort {
+  /**
+   * Nombre maximal de morceaux fusionnés en une passe.
+   */
+  private static final int MAX_FANIN = 128;
+  private static final int OUTPUT_BUFFER = 1 << 20;
+  /**
+   * Estimation de la place occupée par une ligne, hors caractères.
+   */
+  private static final int LINE_OVERHEAD = 64;
+
+  /**
+   * Une ligne et sa clé numérique : un entier exact si la clé est entière
+   * et tient dans un <code>long</code>, un réel sinon (<code>NaN</code>
+   * pour une ligne sans clé).
+   */
+  private static final class Line {
+    final String text;
+    final boolean exact;
+    final long integer;
+    final double key;
+    Line(String text,long integer) {
+      this.text = text;
+      this.exact = true;
+      this.integer = integer;
+      this.key = 0;
+    }
+    Line(String text,double key) {
+      this.text = text;
+      this.exact = false;
+      this.integer = 0;
+      this.key = key;
+    }
+  }
+
+  private final Comparator<Line> order;
+  private final boolean numeric;
+  private final boolean dedup;
+  private final long budget;
+  private final NumberParser parser = new NumberParser();
+  private final List<File> temps = new ArrayList<File>();
+
+  /**
+   * @param order l'ordre des lignes, <code>null</code> pour l'ordre
+   * numérique
+   * @param dedup <code>true</code> pour ne garder qu'une ligne de chaque
+   * groupe de lignes égales
+   * @param budget la mémoire utilisable, en octets
+   */
+  ExternalSort(final Comparator<String> order,boolean dedup,long budget) {
+    this.numeric = order==null;
+    this.dedup = dedup;
+    this.budget = Math.max(budget,1 << 16);
+    if (numeric) {
+      this.order = new Comparator<Line>() {
+          public int compare(Line a,Line b) {
+            if (a.exact && b.exact) return Long.compare(a.integer,b.integer);
+            if (a.exact) return compareKeys(a.integer,b.key);
+            if (b.exact) return -compareKeys(b.integer,a.key);
+            return Double.compare(a.key,b.key);
+          }
+        };
+    } else {
+      this.order = new Comparator<Line>() {
+          public int compare(Line a,Line b) {
+            return order.compare(a.text,b.text);
+          }
+        };
+    }
+  }
+
+  /**
+   * Compare exactement un entier et un réel ; <code>NaN</code> est plus
+   * grand que tout entier.
+   */
+  private static int compareKeys(long x,double d) {
+    if (Double.isNaN(d) || d>=0x1p63) return -1;
+    if (d<-0x1p63) return 1;
+    long t = (long)Math.floor(d);
+    if (x!=t) return x<t ? -1 : 1;
+    return d==t ? 0 : -1;
+  }
+
+  private Line line(String s) {
+    if (!numeric) return new Line(s,0L);
+    int i = 0, n = s.length();
+    while (i<n && s.charAt(i)<=' ') i++;
+    int j = i;
+    while (j<n && s.charAt(j)>' ') j++;
+    long integer = parser.parseLong(s,i,j);
+    if (!parser.failed()) return new Line(s,integer);
+    double key = parser.parseDouble(s,i,j);
+    if (parser.failed()) return new Line(s,Double.NaN);
+    // un réel entier (1.0, 1e3, -0.0) a la même clé que l'entier
+    if (key==Math.rint(key) && key>=-0x1p63 && key<0x1p63) return new Line(s,(long)key);
+    return new Line(s,key);
+  }
+
+  /**
+   * Indique si une ligne est un doublon de la précédente ; les lignes sans
+   * clé numérique sont toutes conservées.
+   */
+  private boolean duplicate(Line previous,Line l) {
+    return dedup && previous!=null && order.compare(previous,l)==0
+      && !(numeric && !l.exact && Double.isNaN(l.key));
+  }
+
+  /**
+   * Trie le fichier <code>in</code> dans le fichier <code>out</code>.
+   * @return l'état de l'opération, au sens de <code>Facile</code>.
+   */
+  int sort(String in,String out) {
+    Fichier input = Fichier.enLecture(in);
+    if (input==null) return Facile.OPEN_ERROR;
+    try {
+      List<File> runs = new ArrayList<File>();
+      List<Line> last = split(input.reader(),runs);
+      OutputBuffer result;
+      try {
+        result = new OutputBuffer(new OutputStreamWriter(new FileOutputStream(out)),OUTPUT_BUFFER);
+      } catch(IOException ex) {
+        return Facile.OPEN_ERROR;
+      }
+      if (runs.isEmpty()) {
+        // tout a tenu en mémoire
+        write(last,result);
+      } else {
+        if (!last.isEmpty()) runs.add(spill(last));
+        while (runs.size()>MAX_FANIN) runs = mergePass(runs);
+        merge(runs,result);
+      }
+      result.close();
+      return result.checkError() ? Facile.WRITE_ERROR : Facile.NO_ERROR;
+    } catch(IOException ex) {
+      return Facile.WRITE_ERROR;
+    } finally {
+      input.close();
+      for (File f : temps) f.delete();
+    }
+  }
+
+  /**
+   * Lit l'entrée par morceaux, en écrivant chaque morceau plein, trié,
+   * dans un fichier temporaire.
+   * @return le dernier morceau, trié, qui n'a pas été écrit.
+   */
+  private List<Line> split(MyTokenizer input,List<File> runs) throws IOException {
+    List<Line> chunk = new ArrayList<Line>();
+    long size = 0;
+    String s;
+    while ((s = input.readLine())!=null) {
+      chunk.add(line(s));
+      size += LINE_OVERHEAD+2L*s.length();
+      if (size>=budget) {
+        runs.add(spill(chunk));
+        chunk = new ArrayList<Line>();
+        size = 0;
+      }
+    }
+    return sorted(chunk);
+  }
+
+  private List<Line> sorted(List<Line> chunk) {
+    Line a[] = chunk.toArray(new Line[chunk.size()]);
+    Arrays.parallelSort(a,order);
+    return Arrays.asList(a);
+  }
+
+  /**
+   * Trie un morceau et l'écrit dans un fichier temporaire.
+   */
+  private File spill(List<Line> chunk) throws IOException {
+    File f = tempFile();
+    OutputBuffer out = runWriter(f);
+    write(sorted(chunk),out);
+    out.close();
+    if (out.checkError()) throw new IOException("écriture impossible dans "+f);
+    return f;
+  }
+
+  private File tempFile() throws IOException {
+    File f = File.createTempFile("facile-sort",".run");
+    temps.add(f);
+    return f;
+  }
+
+  /**
+   * Les morceaux temporaires sont écrits en UTF-8, qui représente toute
+   * ligne.
+   */
+  private static OutputBuffer runWriter(File f) throws IOException {
+    return new OutputBuffer(new OutputStreamWriter(new FileOutputStream(f),StandardCharsets.UTF_8),OUTPUT_BUFFER);
+  }
+
+  /**
+   * Écrit des lignes triées, sans doublons si demandé.
+   */
+  private void write(List<Line> lines,OutputBuffer out) {
+    Line previous = null;
+    for (Line l : lines) {
+      if (duplicate(previous,l)) continue;
+      out.append(l.text).newLine();
+      previous = l;
+    }
+  }
+
+  /**
+   * Un curseur sur un morceau trié.
+   */
+  private final class Cursor {
+    final MyTokenizer lines;
+    final int rank;
+    Line head;
+    Cursor(File f,int rank) throws IOException {
+      lines = new MyTokenizer(new ChannelReader(new FileInputStream(f).getChannel()));
+      this.rank = rank;
+    }
+    boolean advance() {
+      String s = lines.readLine();
+      head = s==null ? null : line(s);
+      return head!=null;
+    }
+  }
+
+  /**
+   * Fusionne des morceaux triés ; à égalité, la ligne du morceau le plus
+   * ancien passe d'abord, ce qui rend le tri stable.
+   */
+  private void merge(List<File> runs,OutputBuffer out) throws IOException {
+    PriorityQueue<Cursor> heap = new PriorityQueue<Cursor>(runs.size(),new Comparator<Cursor>() {
+        public int compare(Cursor a,Cursor b) {
+          int c = order.compare(a.head,b.head);
+          return c!=0 ? c : a.rank-b.rank;
+        }
+      });
+    List<Cursor> cursors = new ArrayList<Cursor>();
+    try {
+      for (File f : runs) {
+        Cursor c = new Cursor(f,cursors.size());
+        cursors.add(c);
+        if (c.advance()) heap.add(c);
+      }
+      Line previous = null;
+      while (!heap.isEmpty()) {
+        Cursor c = heap.poll();
+        Line l = c.head;
+        if (!duplicate(previous,l)) {
+          out.append(l.text).newLine();
+          previous = l;
+        }
+        if (c.advance()) heap.add(c);
+      }
+    } finally {
+      for (Cursor c : cursors) c.lines.close();
+    }
+  }
+
+  /**
+   * Fusionne les morceaux par groupes de <code>MAX_FANIN</code>.
+   * @return les morceaux obtenus, dans l'ordre.
+   */
+  private List<File> mergePass(List<File> runs) throws IOException {
+    List<File> merged = new ArrayList<File>();
+    for (int i=0; i<runs.size(); i+=MAX_FANIN) {
+      List<File> group = runs.subList(i,Math.min(runs.size(),i+MAX_FANIN));
+      File f = tempFile();
+      OutputBuffer out = runWriter(f);
+      merge(group,out);
+      out.close();
+      if (out.checkError()) throw new IOException("écriture impossible dans "+f);
+      for (File g : group) g.delete();
+      merged.add(f);
+    }
+    return merged;
+  }
+}
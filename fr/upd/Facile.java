@@ -1,11 +1,7 @@
 package fr.upd;
-import java.io.*;
-import javax.swing.*;
-import java.awt.*;
-import java.awt.event.*;
-import java.awt.image.*;
-import java.awt.geom.*;
-import java.awt.font.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
 
 /**
  * La classe <code>Facile</code> (ex-classe <code>Deug</code>)
@@ -49,6 +45,19 @@ import java.awt.font.*;
  *	    Facile.fermerFichierEnLecture();
  *	}
  * </PRE>
+ * <P>Pour travailler sur plusieurs fichiers à la fois, chaque fichier est
+ * ouvert par <CODE>ouvrirDescripteurEnLecture</CODE> ou
+ * <CODE>ouvrirDescripteurEnEcriture</CODE>, qui renvoient un numéro
+ * (descripteur) à passer ensuite aux fonctions de lecture et d'écriture.
+ * <P>Un fichier compressé par <CODE>gzip</CODE> se lit comme un autre :
+ * il est reconnu à l'ouverture et décompressé au fil de la lecture, sans
+ * fichier intermédiaire. Les fonctions
+ * <CODE>ouvrirFichierCompresseEnEcriture</CODE> et
+ * <CODE>ouvrirDescripteurCompresseEnEcriture</CODE> écrivent un fichier
+ * compressé. Les fonctions qui parcourent un fichier projeté en mémoire
+ * (<CODE>tokens</CODE>, <CODE>ints</CODE>, <CODE>forEachLine</CODE>,
+ * <CODE>compterLesMotsDuFichier</CODE>...) ne lisent pas un fichier
+ * compressé : l'état vaut alors <CODE>Facile.STREAM_ERROR</CODE>.
  *
  * <H3>Exécution externe</H3>
  * <P>Une interface permet d'exécuter des commandes systèmes et de lire les
@@ -98,136 +107,23 @@ import java.awt.font.*;
  * <CODE>charAt()</CODE> et
  * <CODE>length()</CODE>.
  *
+ * <H3>Sessions</H3>
+ * Toutes les fonctions de cette classe s'adressent à une même session
+ * (<CODE>FacileSession</CODE>) qui contient l'état des entrées/sorties,
+ * des fichiers et des dessins. Pour exécuter plusieurs traitements
+ * indépendants en parallèle, chacun peut utiliser sa propre session.
+ *
+ * <H3>Map/reduce</H3>
+ * Pour les traitements de gros fichiers, la classe <CODE>MapReduce</CODE>
+ * applique une fonction à chaque ligne sur plusieurs threads, puis réduit
+ * par clé les valeurs produites, en débordant si besoin sur disque.
+ *
  * @author Jean-Baptiste.Yunes@univ-paris-diderot.fr
  * @author (contributor) Fabien Tarissan
  * @author (contributor) Daniele.Varacca@pps.univ-paris-diderot.fr
  * @version 0.3, 20/03/2013
  */
 public final class Facile {
-  /**
-   * A private internally useful class to support drawings...
-   */
-  private static class Drawable extends JPanel {
-    private int width, height; // size of drawing area
-    private Image backingStore;
-    private Graphics2D backingGraphics;
-    private MyTurtle turtle;
-    private boolean turtleMode; // turtle or coordinates mode ?
-    public Drawable(int width,int height) {
-      turtle = new Facile.MyTurtle(this);
-      turtleMode = false;
-      setSize(width,height);
-      backingStore = new BufferedImage(width,height,BufferedImage.TYPE_INT_ARGB);
-      backingGraphics = (Graphics2D)backingStore.getGraphics();
-    }
-    public Turtle getTurtle() {
-      return turtle;
-    }
-    public boolean isTurtleModeOn() {
-      return turtleMode;
-    }
-    public void turtleOn() {
-      setTurtle(true);
-    }
-    public void turtleOff() {
-      set Turtle(false);
-    }
-    public void setTurtleMode(boolean b) {
-      turtleMode = b;
-      repaint();
-    }
-    public void setSize(int width,int height) {
-      super.setSize(width,height);
-      this.width = width;
-      this.height = height;
-    }
-    public Dimension getPreferredSize() {
-      return new Dimension(width,height);
-    }
-    public void paintComponent(Graphics g) {
-      g.clearRect(0,0,width,height);
-      g.drawImage(backingStore,0,0,this);
-      if (isTurtleModeOn()) {
-        g.setColor(Color.RED);
-        g.fillOval((int)(turtle.getState().getX())-3,
-                   (int)(turtle.getState().getY())-3,6,6);
-      }
-    }
-    public void drawLine(int x0,int y0,int x1, int y1) {
-      if (backingGraphics==null) return;
-      backingGraphics.drawLine(x0,y0,x1,y1);
-      repaint();
-    }
-    
-    public void drawRect(int x, int y, int l, int h) {
-      if (backingGraphics==null) return;
-      backingGraphics.drawRect(x,y,l,h);
-      repaint();
-    }
-
-    public void fillRect(int x, int y, int l, int h) {
-      if (backingGraphics==null) return;
-      backingGraphics.fillRect(x,y,l,h);
-      repaint();
-    }
-
-    public void fillPolygon(int []x, int []y, int n) {
-      if (backingGraphics==null) return;
-      backingGraphics.fillPolygon(x,y,n);
-      repaint();
-    }
-
-    public void drawPolygon(int []x, int []y, int n) {
-      if (backingGraphics==null) return;
-      backingGraphics.drawPolygon(x,y,n);
-      repaint();
-    }
-
-    public void drawOval(int x, int y, int l, int h) {
-      if (backingGraphics==null) return;
-      backingGraphics.drawOval(x,y,l,h);
-      repaint();
-    }
-
-    public void fillOval(int x, int y, int l, int h) {
-      if (backingGraphics==null) return;
-      backingGraphics.fillOval(x,y,l,h);
-      repaint();
-    }
-
-    public void drawString(int x,int y,String s) {
-      FontMetrics fm = backingGraphics.getFontMetrics();
-      float h = fm.getHeight();
-      //      float w = fm.stringWidth(s);
-      float descent = fm.getDescent();
-      backingGraphics.drawString(s,(int)(x+4),(int)(y+(h/2)-(descent/2)));
-      repaint();
-    }
-
-    public void drawArc(int x, int y, int l, int h, int angleInit, int angleCouvert) {
-      if (backingGraphics==null) return;
-      backingGraphics.drawArc(x,y,l,h, angleInit, angleCouvert);
-      repaint();
-    }
-
-    public void fillArc(int x, int y, int l, int h, int angleInit, int angleCouvert) {
-      if (backingGraphics==null) return;
-      backingGraphics.fillArc(x,y,l,h, angleInit, angleCouvert);
-      repaint();
-    }
-
-    public void setColor(int c1,int c2,int c3) {
-      if (backingGraphics==null) return;
-      backingGraphics.setColor(new Color(c1,c2,c3));
-    }
-    public void clearArea() {
-      if (backingGraphics==null) return;
-      backingGraphics.clearRect(0,0,width,height);
-      repaint();
-    }
-
-  } // end class Drawable
-
   /**
    * Rien à signaler en ce qui concerne la dernière opération
    * d'entrée/sortie.
@@ -259,13 +155,68 @@ public final class Facile {
    */
   private Facile() { }
   /**
-   * Référence sur le flot de découpage en lexèmes.
+   * La session utilisée par les fonctions de cette classe.
+   */
+  private static final FacileSession session = new FacileSession();
+  /**
+   * Renvoie la session par défaut, celle qu'utilisent les fonctions de
+   * cette classe. Un programme qui traite plusieurs tâches indépendantes
+   * en parallèle crée plutôt une <code>FacileSession</code> par tâche.
+   * @return la session par défaut
+   * @since 0.4
+   */
+  public static FacileSession getDefaultSession() {
+    return session;
+  }
+  /**
+   * Fait lire l'entrée standard octet par octet, sans décodage tant que
+   * les caractères lus sont ASCII (chiffres, lettres non accentuées...).
+   * Dès qu'un octet non ASCII est rencontré, la suite de l'entrée est
+   * décodée en UTF-8.
+   * <P>Cette fonction doit être appelée avant toute lecture sur l'entrée ;
+   * après, elle lève une exception.
+   * @since 0.4
+   */
+  public static void useFastAsciiInput() {
+    session.useFastAsciiInput();
+  }
+  /**
+   * Fait lire l'entrée standard par anticipation, dans un thread séparé :
+   * pendant que le programme traite les valeurs déjà lues, les suivantes
+   * sont attendues et mises de côté (dans une limite de quelques dizaines
+   * de milliers de caractères). Utile lorsque l'entrée provient d'un
+   * autre programme, lent, par un tube. Les lectures se comportent
+   * exactement comme sans anticipation.
+   * <P>Cette fonction doit être appelée avant toute lecture sur l'entrée ;
+   * après, elle lève une exception.
+   * @since 0.4
+   * @see #useFastAsciiInput()
    */
-  private static MyTokenizer theTokenizer =  new MyTokenizer(new InputStreamReader(System.in));
+  public static void usePrefetchInput() {
+    session.usePrefetchInput();
+  }
   /**
-   * Code d'erreur interne.
+   * Fait passer les mots lus sur l'entrée par un cache de taille bornée :
+   * un mot déjà rencontré est renvoyé sous la forme de la même chaîne,
+   * sans nouvelle allocation. Utile lorsque peu de mots différents se
+   * répètent un grand nombre de fois.
+   * @param size le nombre de mots conservés (<CODE>0</CODE> pour ne plus
+   * utiliser de cache)
+   * @since 0.4
+   * @see #getStringCacheHitRate()
    */
-  private static int error;
+  public static void useStringCache(int size) {
+    session.useStringCache(size);
+  }
+  /**
+   * Renvoie la proportion des mots lus qui ont été trouvés dans le cache.
+   * @return une valeur entre <CODE>0</CODE> et <CODE>1</CODE>
+   * @since 0.4
+   * @see #useStringCache(int)
+   */
+  public static double getStringCacheHitRate() {
+    return session.getStringCacheHitRate();
+  }
   /**
    * Renvoie l'état de la dernière opération d'entrée/sortie.
    * <DL>
@@ -278,7 +229,7 @@ public final class Facile {
    * @return l'état logique de la dernière opération.
    */
   public static boolean isOk() {
-    return getStatus()==NO_ERROR;
+    return session.isOk();
   }
   /**
    * Renvoie l'erreur rencontrée lors de la dernière opération
@@ -286,7 +237,7 @@ public final class Facile {
    * @return la dernière erreur recontrée.
    */
   public static int getStatus() {
-    return error;
+    return session.getStatus();
   }
 
   /**
@@ -299,44 +250,30 @@ public final class Facile {
    * consulter l'état de l'opération (<code>isOk()</code>).
    */
   public static char readChar() {
-    int c;
-    try {
-      c = theTokenizer.read();
-      if (c!=MyTokenizer.EOF) {
-        error = NO_ERROR;
-        return (char)c;
-      } else {
-        error = STREAM_ERROR;
-        return '\u0000';
-      }
-    } catch(java.io.IOException ioe) {
-      error = STREAM_ERROR;
-      return '\u0000';
-    }
+    return session.readChar();
   }
 
   /**
-   * Termine toute exécution de la machine.
+   * Termine toute exécution de la machine. Ce qui a été affiché est écrit,
+   * et les fichiers encore ouverts sont fermés.
    */
   public static void exit() {
+    session.flush();
     System.exit(0);
   }
 
   /**
    * Lit l'ensemble des caractères jusqu'à la prochaine fin de ligne.
    *
-   * <P>Les caractères lus le sont par l'intermédiaire de la méthode
-   * <CODE>readChar()</CODE>
-   * @return la ligne suivante disponible sur l'entrée.
+   * <P>La fin de ligne (<CODE>\n</CODE>, <CODE>\r\n</CODE> ou
+   * <CODE>\r</CODE>) ne fait pas partie de la chaîne renvoyée. Si un
+   * lexème vient d'être lu, la lecture commence après le séparateur qui
+   * le suit.
+   * @return la ligne suivante disponible sur l'entrée (<code>null</code>
+   * en fin de flot).
    */
   public static String readLine() {
-    StringBuffer theString=new StringBuffer();
-    char c;
-    while ( ((c=readChar())!='\n') && isOk() ) {
-      theString.append(c);
-    }
-    if (!isOk()) return null;
-    return theString.toString();
+    return session.readLine();
   }
 
   /**
@@ -349,17 +286,7 @@ public final class Facile {
    * </DL>
    **/
   public static boolean stringToBoolean(String s) {
-    error = NO_ERROR;
-    if (s==null) {
-      error = ARG_ERROR;
-      return false;
-    }
-    try {
-      return Boolean.valueOf(s).booleanValue();
-    } catch(NumberFormatException nfe) {
-      error = FORMAT_ERROR;
-      return false;
-    }
+    return session.stringToBoolean(s);
   }
   /**
    * Convertit une chaîne de caractères en <CODE>int</CODE>.
@@ -371,17 +298,7 @@ public final class Facile {
    * nécessaire de consulter le statut de l'opération...
    **/
   public static int stringToInt(String s) {
-    error = NO_ERROR;
-    if (s==null) {
-      error = ARG_ERROR;
-      return (int)0;
-    }
-    try {
-      return Integer.parseInt(s);
-    } catch(NumberFormatException nfe) {
-      error = FORMAT_ERROR;
-      return (int)0;
-    }
+    return session.stringToInt(s);
   }
   /**
    * Convertit une chaîne de caractères en <CODE>byte</CODE>.
@@ -393,17 +310,7 @@ public final class Facile {
    * nécessaire de consulter le statut de l'opération...
    **/
   public static byte stringToByte(String s) {
-    error = NO_ERROR;
-    if (s==null) {
-      error = ARG_ERROR;
-      return (byte)0;
-    }
-    try {
-      return Byte.parseByte(s);
-    } catch(NumberFormatException nfe) {
-      error = FORMAT_ERROR;
-      return (byte)0;
-    }
+    return session.stringToByte(s);
   }
   /**
    * Convertit une chaîne de caractères en <CODE>double</CODE>.
@@ -415,17 +322,7 @@ public final class Facile {
    * nécessaire de consulter le statut de l'opération...
    **/
   public static double stringToDouble(String s) {
-    error = NO_ERROR;
-    if (s==null) {
-      error = ARG_ERROR;
-      return (double)0;
-    }
-    try {
-      return Double.parseDouble(s);
-    } catch(NumberFormatException nfe) {
-      error = FORMAT_ERROR;
-      return (double)0;
-    }
+    return session.stringToDouble(s);
   }
   /**
    * Convertit une chaîne de caractères en <CODE>float</CODE>.
@@ -437,17 +334,7 @@ public final class Facile {
    * nécessaire de consulter le statut de l'opération...
    **/
   public static float stringToFloat(String s) {
-    error = NO_ERROR;
-    if (s==null) {
-      error = ARG_ERROR;
-      return (float)0;
-    }
-    try {
-      return Float.parseFloat(s);
-    } catch(NumberFormatException nfe) {
-      error = FORMAT_ERROR;
-      return (float)0;
-    }
+    return session.stringToFloat(s);
   }
   /**
    * Convertit une chaîne de caractères en <CODE>long</CODE>.
@@ -459,17 +346,7 @@ public final class Facile {
    * nécessaire de consulter le statut de l'opération...
    **/
   public static long stringToLong(String s) {
-    error = NO_ERROR;
-    if (s==null) {
-      error = ARG_ERROR;
-      return (long)0;
-    }
-    try {
-      return Long.parseLong(s);
-    } catch(NumberFormatException nfe) {
-      error = FORMAT_ERROR;
-      return (long)0;
-    }
+    return session.stringToLong(s);
   }
   /**
    * Lit un lexème sur l'entrée et le convertit en <CODE>int</CODE>.
@@ -479,13 +356,7 @@ public final class Facile {
    * @return le lexème suivant en tant qu'entier (<CODE>int</CODE>)
    */
   public static int readInt() {
-    int tokenType;
-    tokenType = theTokenizer.nextToken();
-    if (tokenType==MyTokenizer.EOF) {
-      error = STREAM_ERROR;
-      return 0;
-    }
-    return stringToInt(theTokenizer.currentToken());
+    return session.readInt();
   }
   /**
    * Lit un lexème sur l'entrée et le convertit en <CODE>long</CODE>.
@@ -495,13 +366,7 @@ public final class Facile {
    * @return le lexème suivant en tant qu'entier long (<CODE>long</CODE>)
    */
   public static long readLong() {
-    int tokenType;
-    tokenType = theTokenizer.nextToken();
-    if (tokenType==MyTokenizer.EOF) {
-      error = STREAM_ERROR;
-      return 0;
-    }
-    return stringToLong(theTokenizer.currentToken());
+    return session.readLong();
   }
   /**
    * Lit un lexème sur l'entrée et le convertit en <CODE>float</CODE>.
@@ -511,13 +376,7 @@ public final class Facile {
    * @return le lexème suivant en tant qu'entier (<CODE>float</CODE>)
    */
   public static float readFloat() {
-    int tokenType;
-    tokenType = theTokenizer.nextToken();
-    if (tokenType==MyTokenizer.EOF) {
-      error = STREAM_ERROR;
-      return 0;
-    }
-    return stringToFloat(theTokenizer.currentToken());
+    return session.readFloat();
   }
   /**
    * Lit un lexème sur l'entrée et le convertit en <CODE>double</CODE>.
@@ -527,13 +386,79 @@ public final class Facile {
    * @return le lexème suivant en tant qu'entier (<CODE>double</CODE>)
    */
   public static double readDouble() {
-    int tokenType;
-    tokenType = theTokenizer.nextToken();
-    if (tokenType==MyTokenizer.EOF) {
-      error = STREAM_ERROR;
-      return 0;
-    }
-    return stringToDouble(theTokenizer.currentToken());
+    return session.readDouble();
+  }
+  /**
+   * Lit sur l'entrée au plus <CODE>len</CODE> entiers (<CODE>int</CODE>) et
+   * les range dans <CODE>dst[off]</CODE>, <CODE>dst[off+1]</CODE>, etc.
+   * <p>
+   * La lecture s'arrête à la fin du flot ou au premier lexème qui n'est pas
+   * un entier; l'état est alors positionné en conséquence
+   * (<CODE>STREAM_ERROR</CODE> ou <CODE>FORMAT_ERROR</CODE>).
+   * @param dst le tableau à remplir
+   * @param off l'indice de la première case à remplir
+   * @param len le nombre de valeurs à lire
+   * @return le nombre de valeurs effectivement lues
+   * @since 0.4
+   */
+  public static int readInts(int []dst,int off,int len) {
+    return session.readInts(dst,off,len);
+  }
+  /**
+   * Remplit un tableau d'entiers (<CODE>int</CODE>) lus sur l'entrée.
+   * @param dst le tableau à remplir
+   * @return le nombre de valeurs effectivement lues
+   * @see #readInts(int[],int,int)
+   * @since 0.4
+   */
+  public static int readInts(int []dst) {
+    return session.readInts(dst);
+  }
+  /**
+   * Lit sur l'entrée au plus <CODE>len</CODE> entiers longs
+   * (<CODE>long</CODE>).
+   * @param dst le tableau à remplir
+   * @param off l'indice de la première case à remplir
+   * @param len le nombre de valeurs à lire
+   * @return le nombre de valeurs effectivement lues
+   * @see #readInts(int[],int,int)
+   * @since 0.4
+   */
+  public static int readLongs(long []dst,int off,int len) {
+    return session.readLongs(dst,off,len);
+  }
+  /**
+   * Remplit un tableau d'entiers longs (<CODE>long</CODE>) lus sur l'entrée.
+   * @param dst le tableau à remplir
+   * @return le nombre de valeurs effectivement lues
+   * @see #readInts(int[],int,int)
+   * @since 0.4
+   */
+  public static int readLongs(long []dst) {
+    return session.readLongs(dst);
+  }
+  /**
+   * Lit sur l'entrée au plus <CODE>len</CODE> flottants double précision
+   * (<CODE>double</CODE>).
+   * @param dst le tableau à remplir
+   * @param off l'indice de la première case à remplir
+   * @param len le nombre de valeurs à lire
+   * @return le nombre de valeurs effectivement lues
+   * @see #readInts(int[],int,int)
+   * @since 0.4
+   */
+  public static int readDoubles(double []dst,int off,int len) {
+    return session.readDoubles(dst,off,len);
+  }
+  /**
+   * Remplit un tableau de flottants (<CODE>double</CODE>) lus sur l'entrée.
+   * @param dst le tableau à remplir
+   * @return le nombre de valeurs effectivement lues
+   * @see #readInts(int[],int,int)
+   * @since 0.4
+   */
+  public static int readDoubles(double []dst) {
+    return session.readDoubles(dst);
   }
   /**
    * Lit un mot sur l'entrée.
@@ -543,70 +468,63 @@ public final class Facile {
    * @return le mot suivant sur l'entrée (<code>null</code> en cas d'échec).
    */
   public static String readString() {
-    int tokenType;
-    tokenType = theTokenizer.nextToken();
-    if (tokenType==MyTokenizer.EOF) {
-      error = STREAM_ERROR;
-      return null;
-    }
-    error = NO_ERROR;
-    return theTokenizer.currentToken();
+    return session.readString();
   }
   /**
    * Affiche un caractère Unicode.
    * @param c Le caractère à afficher.
    */
   public static void print(char c) {
-    System.out.print(c);
+    session.print(c);
   }
   /**
    * Affiche la valeur d'un entier (<code>int</code>)
    * @param i L'entier à afficher
    */
   public static void print(int i) {
-    System.out.print(i);
+    session.print(i);
   }
   /**
    * Affiche la valeur d'un booléen (<code>boolean</code>)
    * @param b Le booléen à afficher
    */
   public static void print(boolean b) {
-    System.out.print(b);
+    session.print(b);
   }
   /**
    * Affiche la valeur d'un entier long (<code>long</code>)
    * @param l L'entier long à afficher
    */
   public static void print(long l) {
-    System.out.print(l);
+    session.print(l);
   }
   /**
    * Affiche la valeur d'un flottant simple précision (<code>float</code>)
    * @param f Le flottant à afficher
    */
   public static void print(float f) {
-    System.out.print(f);
+    session.print(f);
   }
   /**
    * Affiche la valeur d'un flottant double précision (<code>double</code>)
    * @param d Le flottant à afficher
    */
   public static void print(double d) {
-    System.out.print(d);
+    session.print(d);
   }
   /**
    * Affiche la représentation en <code>String</code> de l'objet
    * @param o L'objet à afficher
    */
   public static void print(Object o) {
-    System.out.print(o);
+    session.print(o);
   }
   /**
    * Affiche la chaîne de caractère (<code>String</code>)
    * @param s La chaîne à afficher
    */
   public static void print(String s) {
-    System.out.print(s);
+    session.print(s);
   }
   /**
    * Affiche un caractère suivi d'un saut de ligne.
@@ -615,7 +533,7 @@ public final class Facile {
    * @param c Le caractère à afficher.
    */
   public static void println(char c) {
-    System.out.println(c);
+    session.println(c);
   }
   /**
    * Affiche la valeur d'un booléen (<code>boolean</code>) suivie
@@ -625,7 +543,7 @@ public final class Facile {
    * @param b Le booléen à afficher
    */
   public static void println(boolean b) {
-    System.out.println(b);
+    session.println(b);
   }
   /**
    * Affiche la valeur d'un entier (<code>int</code>) suivie
@@ -635,7 +553,7 @@ public final class Facile {
    * @param i L'entier à afficher
    */
   public static void println(int i) {
-    System.out.println(i);
+    session.println(i);
   }
   /**
    * Affiche la valeur d'un entier long (<code>long</code>) suivie
@@ -645,7 +563,7 @@ public final class Facile {
    * @param l L'entier long à afficher
    */
   public static void println(long l) {
-    System.out.println(l);
+    session.println(l);
   }
   /**
    * Affiche la valeur d'un flottant simple précision (<code>float</code>)
@@ -655,7 +573,7 @@ public final class Facile {
    * @param f Le flottant à afficher
    */
   public static void println(float f) {
-    System.out.println(f);
+    session.println(f);
   }
   /**
    * Affiche un flottant double précision suivi d'une fin de ligne.
@@ -663,19 +581,87 @@ public final class Facile {
    * @param d Le <code>double</code> à afficher.
    */
   public static void println(double d) {
-    System.out.println(d);
+    session.println(d);
   }
   public static void println(Object o) {
-    System.out.println(o);
+    session.println(o);
   }
   public static void println(String s) {
-    System.out.println(s);
+    session.println(s);
   }
   /**
    * Affiche un saut de ligne.
    */
   public static void println() {
-    System.out.println();
+    session.println();
+  }
+  /**
+   * Prépare un modèle d'affichage, dans lequel chaque <CODE>{}</CODE> est
+   * un emplacement à remplir par une valeur. Le modèle est analysé une
+   * seule fois et peut être réutilisé pour chaque ligne :
+   * <PRE>
+   *	Template t = Facile.template("x={} y={}");
+   *	t.with(3).with(4.5).println();	// affiche x=3 y=4.5
+   * </PRE>
+   * @param modele le texte du modèle
+   * @return le modèle, qui affiche sur la sortie de <CODE>Facile</CODE>
+   * @since 0.4
+   * @see Template
+   */
+  public static Template template(String modele) {
+    return session.template(modele);
+  }
+  /**
+   * Fait passer les affichages par un grand tampon, qui n'est écrit à
+   * l'écran qu'une fois plein. Cela accélère beaucoup les programmes qui
+   * affichent un très grand nombre de lignes. Les entiers et la plupart
+   * des réels y sont écrits chiffre par chiffre, sans créer de chaîne.
+   * <P>Le tampon est aussi écrit avant chaque lecture sur l'entrée (une
+   * question posée à l'utilisateur reste donc visible), lors d'un appel à
+   * <CODE>flush()</CODE> ou <CODE>exit()</CODE>, et à la fin du programme.
+   * @since 0.4
+   * @see #flush()
+   */
+  public static void useBufferedOutput() {
+    session.useBufferedOutput();
+  }
+  /**
+   * Fait écrire les affichages par un thread séparé : comme avec
+   * <CODE>useBufferedOutput()</CODE> les affichages sont regroupés dans un
+   * tampon, mais l'écriture effective à l'écran (ou dans un tube lent) se
+   * fait en parallèle du calcul. Si l'écriture prend trop de retard, le
+   * programme attend qu'elle se rattrape.
+   * <P>Tout ce qui a été affiché est écrit avant chaque lecture sur
+   * l'entrée, lors d'un appel à <CODE>flush()</CODE> ou <CODE>exit()</CODE>,
+   * et à la fin du programme.
+   * @since 0.4
+   * @see #useAsyncOutput(int queueSize,boolean blockWhenFull)
+   */
+  public static void useAsyncOutput() {
+    session.useAsyncOutput();
+  }
+  /**
+   * Fait écrire les affichages par un thread séparé, avec une file
+   * d'attente de taille donnée.
+   * @param queueSize le nombre de blocs (de 8 Ko) en attente d'écriture
+   * au-delà duquel la file est pleine
+   * @param blockWhenFull <CODE>true</CODE> pour que le programme attende
+   * lorsque la file est pleine, <CODE>false</CODE> pour que la file
+   * grandisse sans limite
+   * @since 0.4
+   * @see #useAsyncOutput()
+   */
+  public static void useAsyncOutput(int queueSize,boolean blockWhenFull) {
+    session.useAsyncOutput(queueSize,blockWhenFull);
+  }
+  /**
+   * Force l'écriture à l'écran de tout ce qui a été affiché, et dans les
+   * fichiers ouverts en écriture de toutes les lignes en attente.
+   * @since 0.4
+   * @see #useBufferedOutput()
+   */
+  public static void flush() {
+    session.flush();
   }
   public static char charAt(String aString,int position) {
     return aString.charAt(position);
@@ -768,37 +754,11 @@ public final class Facile {
   public static int length(String aString) {
     return aString.length();
   }
-  private static JFrame theFrame = null;
-  private static Drawable theDrawable = null;
   /**
    * Prépare une zone d'affichage de taille 300x300.
    */
   public static void startDrawings() {
-    startDrawings(300,300);
-  }
-  private static class GraphicsInitializer implements Runnable {
-    private int width, height;
-    private JFrame theFrame;
-    private Drawable theDrawable;
-    public JFrame getTheFrame() {
-      return theFrame;
-    }
-    public Drawable getTheDrawable() {
-      return theDrawable;
-    }
-    public GraphicsInitializer(int w,int h) {
-      width = w;
-      height = h;
-    }
-    public void run() {
-      theFrame = new JFrame("Dessin");
-      theFrame.setResizable(false);
-      theDrawable = new Drawable(width,height);
-      theFrame.getContentPane().add(theDrawable);
-      theFrame.pack();
-      theFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-      theFrame.setVisible(true);
-    }
+    session.startDrawings();
   }
   /**
    * Prépare une zone d'affichage de taille arbitraire.
@@ -806,23 +766,13 @@ public final class Facile {
    * @param height La hauteur de la zone d'affichage
    */
   public static void startDrawings(int width,int height) {
-    if (theFrame!=null) return;
-    GraphicsInitializer t = new GraphicsInitializer(width,height);
-    try {
-      SwingUtilities.invokeAndWait(t);
-      theFrame = t.getTheFrame();
-      theDrawable = t.getTheDrawable();
-    } catch(Exception e) {
-      System.err.println("Impossible de créer le contexte graphique lors de l'appel à startDrawings()");
-    }
+    session.startDrawings(width,height);
   }
   /**
    * Ferme la fenêtre graphique.
    */
   public static void stopDrawings() {
-    if (theFrame==null) return;
-    theFrame.dispose();
-    theFrame=null;
+    session.stopDrawings();
   }
   /**
    * Dessine un point dans la zone d'affichage.
@@ -830,9 +780,7 @@ public final class Facile {
    * @param y L'ordonnée du point.
    */
   public static void drawPoint(int x,int y) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.drawLine(x,y,x,y);
+    session.drawPoint(x,y);
   }
   /**
    * Modifie la couleur de l'encre des points à dessiner.
@@ -842,9 +790,7 @@ public final class Facile {
    * @param c La couleur.
    */
   public static void setGray(int c) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.setColor(c,c,c);
+    session.setGray(c);
   }
   /**
    * Modifie la couleur de l'encre des points à dessiner.
@@ -853,9 +799,7 @@ public final class Facile {
    * @param b la valeur du canal bleu
    */
   public static void setColor(int r,int g,int b) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.setColor(r,g,b);
+    session.setColor(r,g,b);
   }
   /**
    * Dessine un segment de droite dans la zone d'affichage.
@@ -865,9 +809,7 @@ public final class Facile {
    * @param y1 L'ordonnée du second point.
    */
   public static void drawLine(int x0,int y0,int x1, int y1) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.drawLine(x0,y0,x1,y1);
+    session.drawLine(x0,y0,x1,y1);
   }
   /**
    * Dessine le polygone fermé défini par les coordonnées de ses n points
@@ -876,9 +818,7 @@ public final class Facile {
    * @param n le nombre de points définis
    */
   public static void drawPolygon(int []x,int []y,int n) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.drawPolygon(x,y,n);
+    session.drawPolygon(x,y,n);
   }
   /**
    * Remplit le polygone fermé défini par les coordonnées de ses n points
@@ -887,9 +827,7 @@ public final class Facile {
    * @param n le nombre de points définis
    */
   public static void fillPolygon(int []x,int []y,int n) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.fillPolygon(x,y,n);
+    session.fillPolygon(x,y,n);
   }
 
 
@@ -906,9 +844,7 @@ public final class Facile {
    * @param h La hauteur du rectangle.
    */
   public static void drawRect(int x,int y,int l, int h) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.drawRect(x,y,l,h);
+    session.drawRect(x,y,l,h);
   }
 
   /**
@@ -924,9 +860,7 @@ public final class Facile {
    * @param h La hauteur du rectangle.
    */
   public static void fillRect(int x,int y,int l, int h) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.fillRect(x,y,l,h);
+    session.fillRect(x,y,l,h);
   }
 
   /**
@@ -936,9 +870,7 @@ public final class Facile {
    * @param r Le rayon du cercle.
    */
   public static void drawCircle(int x,int y,int r) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.drawOval(x-r, y-r, 2*r, 2*r);
+    session.drawCircle(x,y,r);
   }
 
   /**
@@ -948,9 +880,7 @@ public final class Facile {
    * @param r Le rayon du cercle.
    */
   public static void fillCircle(int x,int y,int r) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.fillOval(x-r, y-r, 2*r, 2*r);
+    session.fillCircle(x,y,r);
   }
 
 
@@ -968,18 +898,14 @@ public final class Facile {
    * @param angleCouvert Angle de rotation.
    */
   public static void drawArc(int x,int y,int r, int angleInit, int angleCouvert) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.drawArc(x-r, y-r, 2*r, 2*r, angleInit, angleCouvert);
+    session.drawArc(x,y,r,angleInit,angleCouvert);
   }
 
   /**
    *
    */
   public static void drawString(int x,int y,String s) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.drawString(x,y,s);
+    session.drawString(x,y,s);
   }
 
   /**
@@ -996,31 +922,14 @@ public final class Facile {
    * @param angleCouvert L'angle de rotation.
    */
   public static void fillArc(int x,int y,int r, int angleInit, int angleCouvert) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.fillArc(x-r, y-r, 2*r, 2*r, angleInit, angleCouvert);
+    session.fillArc(x,y,r,angleInit,angleCouvert);
   }
 
   /**
    * Efface intégralement le contenu de la fenêtre graphique.
    */
   public static void clearArea() {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.clearArea();
-  }
-
-  private static void printExternalProcessOutputs(Process p) {
-    try {
-      BufferedReader bf = new BufferedReader(new InputStreamReader(p.getInputStream()));
-      String s;
-      while ( (s=bf.readLine())!= null) {
-        System.out.println(s);
-      }
-      bf.close();
-    } catch (Exception ex) {
-      throw new RuntimeException("Impossible de lire les résultats de la commande");
-    }
+    session.clearArea();
   }
 
   /**
@@ -1031,16 +940,7 @@ public final class Facile {
    * @since 0.2
    */
   public static void exec(String []args) {
-    Process p = null;
-    try {
-      p = Runtime.getRuntime().exec(args);
-    } catch(Exception ex) {
-      throw new RuntimeException("Impossible de lancer "+args[0]);
-    }
-    printExternalProcessOutputs(p);
-    try {
-      p.waitFor();
-    } catch (Exception ex) {}
+    session.exec(args);
   }
 
   /**
@@ -1052,20 +952,8 @@ public final class Facile {
    * @since 0.2
    */
   public static void exec(String command) {
-    Process p = null;
-    try {
-      p = Runtime.getRuntime().exec(command);
-    } catch(Exception ex) {
-      throw new RuntimeException("Impossible de lancer "+command);
-    }
-    printExternalProcessOutputs(p);
-    try {
-      p.waitFor();
-    } catch (Exception ex) {}
+    session.exec(command);
   }
-
-  private static BufferedReader bf;
-  private static String rs;
   /**
    * Cette fonction permet de préparer un fichier de sorte que des lectures
    * puissent y être réalisées.
@@ -1077,13 +965,23 @@ public final class Facile {
    * @see #lireUneLigneDuFichier()
    */
   public static int ouvrirFichierEnLecture(String nom) {
-    if (bf!=null) throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
-    try {
-      bf = new BufferedReader(new FileReader(nom));
-    } catch(FileNotFoundException ex) {
-      return OPEN_ERROR;
-    }
-    return NO_ERROR;
+    return session.ouvrirFichierEnLecture(nom);
+  }
+  /**
+   * Prépare un fichier pour des lectures, comme
+   * <CODE>ouvrirFichierEnLecture(String)</CODE>, mais en décodant son
+   * contenu dans le codage indiqué plutôt que dans celui du système : le
+   * résultat ne dépend alors plus de la machine.
+   * @param nom Le nom du fichier à ouvrir, et qui doit exister préalablement.
+   * @param codage le nom du codage du fichier
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.ARG_ERROR</CODE> si le codage est inconnu,
+   * <CODE>Facile.OPEN_ERROR</CODE> si le fichier n'a pu être ouvert.
+   * @since 0.4
+   * @see #ouvrirFichierEnLecture(String)
+   */
+  public static int ouvrirFichierEnLecture(String nom,String codage) {
+    return session.ouvrirFichierEnLecture(nom,codage);
   }
   /**
    * Cette fonction doit être appellée lorsqu'on ne désire plus effectuer 
@@ -1093,11 +991,7 @@ public final class Facile {
    * @since 0.21
    */
   public static void fermerFichierEnLecture() {
-    if (bf==null) return;
-    try {
-      bf.close();
-    } catch(IOException ex) {}
-    bf = null;
+    session.fermerFichierEnLecture();
   }
   /**
    * Cette fonction permet d'obtenir une ligne du fichier précédemment ouvert.
@@ -1108,15 +1002,344 @@ public final class Facile {
    * @since 0.21
    */
   public static String lireUneLigneDuFichier() {
-    if (bf==null)
-      throw new RuntimeException("il faut d'abord ouvrir un fichier avant de tenter de lire...");
-    try {
-      return bf.readLine();
-    } catch(IOException ex) {
-      return null;
-    }
+    return session.lireUneLigneDuFichier();
   }
-  private static PrintWriter pw;
+  /**
+   * Cette fonction permet de préparer un fichier de sorte que des lexèmes
+   * (mots, nombres) puissent y être lus, comme sur l'entrée standard.
+   * Les gros fichiers sont projetés en mémoire.
+   * @param nom Le nom du fichier à ouvrir, et qui doit exister préalablement.
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.OPEN_ERROR</CODE> sinon.
+   * @since 0.4
+   * @see #fermerFichierDeLexemes()
+   * @see #lireUnEntierDuFichier()
+   * @see #lireUnMotDuFichier()
+   */
+  public static int ouvrirFichierDeLexemes(String nom) {
+    return session.ouvrirFichierDeLexemes(nom);
+  }
+  /**
+   * Cette fonction doit être appellée lorsqu'on ne désire plus lire de
+   * lexèmes dans le fichier précédemment ouvert.
+   * @see #ouvrirFichierDeLexemes(String nom)
+   * @since 0.4
+   */
+  public static void fermerFichierDeLexemes() {
+    session.fermerFichierDeLexemes();
+  }
+  /**
+   * Lit un lexème du fichier précédemment ouvert et le convertit en
+   * <CODE>int</CODE>, comme le fait <CODE>readInt()</CODE> sur l'entrée.
+   * @return le lexème suivant en tant qu'entier (<CODE>int</CODE>)
+   * @see #ouvrirFichierDeLexemes(String nom)
+   * @since 0.4
+   */
+  public static int lireUnEntierDuFichier() {
+    return session.lireUnEntierDuFichier();
+  }
+  /**
+   * Lit un lexème du fichier précédemment ouvert et le convertit en
+   * <CODE>long</CODE>, comme le fait <CODE>readLong()</CODE> sur l'entrée.
+   * @return le lexème suivant en tant qu'entier long (<CODE>long</CODE>)
+   * @see #ouvrirFichierDeLexemes(String nom)
+   * @since 0.4
+   */
+  public static long lireUnEntierLongDuFichier() {
+    return session.lireUnEntierLongDuFichier();
+  }
+  /**
+   * Lit un lexème du fichier précédemment ouvert et le convertit en
+   * <CODE>double</CODE>, comme le fait <CODE>readDouble()</CODE> sur
+   * l'entrée.
+   * @return le lexème suivant en tant que réel (<CODE>double</CODE>)
+   * @see #ouvrirFichierDeLexemes(String nom)
+   * @since 0.4
+   */
+  public static double lireUnReelDuFichier() {
+    return session.lireUnReelDuFichier();
+  }
+  /**
+   * Lit un mot du fichier précédemment ouvert, comme le fait
+   * <CODE>readString()</CODE> sur l'entrée.
+   * @return le mot suivant (<code>null</code> en cas d'échec).
+   * @see #ouvrirFichierDeLexemes(String nom)
+   * @since 0.4
+   */
+  public static String lireUnMotDuFichier() {
+    return session.lireUnMotDuFichier();
+  }
+  /**
+   * Cette fonction permet de préparer un fichier dont chaque ligne est un
+   * enregistrement formé de champs séparés par des caractères donnés
+   * (fichiers CSV, TSV, etc.). Les guillemets n'ont aucun rôle
+   * particulier : chaque séparateur termine un champ.
+   * @param nom Le nom du fichier à ouvrir, et qui doit exister préalablement.
+   * @param separateurs les caractères séparant les champs, par exemple
+   * <CODE>","</CODE> ou <CODE>"\t"</CODE>
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.ARG_ERROR</CODE> si aucun séparateur n'est donné,
+   * <CODE>Facile.OPEN_ERROR</CODE> sinon.
+   * @since 0.4
+   * @see #fermerFichierDEnregistrements()
+   * @see #lireUnEnregistrementDuFichier()
+   */
+  public static int ouvrirFichierDEnregistrements(String nom,String separateurs) {
+    return session.ouvrirFichierDEnregistrements(nom,separateurs);
+  }
+  /**
+   * Cette fonction doit être appellée lorsqu'on ne désire plus lire
+   * d'enregistrements dans le fichier précédemment ouvert.
+   * @see #ouvrirFichierDEnregistrements(String nom,String separateurs)
+   * @since 0.4
+   */
+  public static void fermerFichierDEnregistrements() {
+    session.fermerFichierDEnregistrements();
+  }
+  /**
+   * Lit la ligne suivante du fichier d'enregistrements et la découpe en
+   * champs, sans créer de chaîne de caractères. Les champs s'obtiennent
+   * ensuite par <CODE>champ(i)</CODE>, <CODE>champEntier(i)</CODE>, etc.
+   * jusqu'à la lecture de l'enregistrement suivant.
+   * @return le nombre de champs (au moins 1), ou <CODE>0</CODE> s'il n'y
+   * a plus rien à lire (l'état vaut alors <CODE>Facile.STREAM_ERROR</CODE>).
+   * @see #ouvrirFichierDEnregistrements(String nom,String separateurs)
+   * @since 0.4
+   */
+  public static int lireUnEnregistrementDuFichier() {
+    return session.lireUnEnregistrementDuFichier();
+  }
+  /**
+   * Renvoie un champ de l'enregistrement courant. Le résultat est une vue
+   * sur le tampon de lecture, réutilisée d'un enregistrement à l'autre :
+   * pour conserver le champ, il faut le copier par <CODE>toString()</CODE>.
+   * @param i le numéro du champ, à partir de <CODE>0</CODE>
+   * @return le champ, ou <CODE>null</CODE> s'il n'existe pas (l'état vaut
+   * alors <CODE>Facile.ARG_ERROR</CODE>).
+   * @see #lireUnEnregistrementDuFichier()
+   * @since 0.4
+   */
+  public static CharSequence champ(int i) {
+    return session.champ(i);
+  }
+  /**
+   * Convertit un champ de l'enregistrement courant en <CODE>int</CODE>.
+   * Les blancs entourant le nombre sont ignorés.
+   * @param i le numéro du champ, à partir de <CODE>0</CODE>
+   * @return la valeur du champ; en cas d'erreur l'état vaut
+   * <CODE>Facile.FORMAT_ERROR</CODE> ou <CODE>Facile.ARG_ERROR</CODE>.
+   * @see #lireUnEnregistrementDuFichier()
+   * @since 0.4
+   */
+  public static int champEntier(int i) {
+    return session.champEntier(i);
+  }
+  /**
+   * Convertit un champ de l'enregistrement courant en <CODE>long</CODE>.
+   * @param i le numéro du champ, à partir de <CODE>0</CODE>
+   * @return la valeur du champ
+   * @see #champEntier(int)
+   * @since 0.4
+   */
+  public static long champEntierLong(int i) {
+    return session.champEntierLong(i);
+  }
+  /**
+   * Convertit un champ de l'enregistrement courant en <CODE>double</CODE>.
+   * @param i le numéro du champ, à partir de <CODE>0</CODE>
+   * @return la valeur du champ
+   * @see #champEntier(int)
+   * @since 0.4
+   */
+  public static double champReel(int i) {
+    return session.champReel(i);
+  }
+  /**
+   * Renvoie le flux des lexèmes (mots) d'un fichier.
+   * <P>Le fichier est projeté en mémoire et peut être découpé, sur des
+   * blancs, entre plusieurs processeurs : il suffit d'appeler
+   * <code>parallel()</code> sur le flux obtenu. Le flux doit être fermé
+   * (<code>close()</code>) après usage.
+   * @param nom Le nom du fichier à lire.
+   * @return le flux des lexèmes, ou <code>null</code> si le fichier n'a
+   * pu être ouvert (l'état vaut alors <CODE>OPEN_ERROR</CODE>).
+   * @since 0.4
+   */
+  public static Stream<String> tokens(String nom) {
+    return session.tokens(nom);
+  }
+  /**
+   * Renvoie le flux des entiers (<CODE>int</CODE>) d'un fichier.
+   * <P>Comme pour <code>tokens()</code>, le flux peut être rendu parallèle.
+   * Un lexème qui n'est pas un entier provoque une
+   * <code>NumberFormatException</code> lors du parcours.
+   * @param nom Le nom du fichier à lire.
+   * @return le flux des entiers, ou <code>null</code> si le fichier n'a
+   * pu être ouvert (l'état vaut alors <CODE>OPEN_ERROR</CODE>).
+   * @see #tokens(String)
+   * @since 0.4
+   */
+  public static IntStream ints(String nom) {
+    return session.ints(nom);
+  }
+
+  /**
+   * Trie les lignes d'un fichier, même s'il est trop gros pour tenir en
+   * mémoire : le fichier est trié par morceaux, mis de côté dans des
+   * fichiers temporaires, puis fusionnés. Les lignes égales restent dans
+   * leur ordre d'origine.
+   * <PRE>
+   *	Facile.trierFichier("noms.txt","noms-tries.txt",null,100000000);
+   * </PRE>
+   * @param entree le nom du fichier à trier
+   * @param sortie le nom du fichier trié à produire
+   * @param ordre l'ordre des lignes, <CODE>null</CODE> pour l'ordre
+   * alphabétique (celui de <CODE>compare</CODE>)
+   * @param memoire la mémoire utilisable pour le tri, en octets
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.OPEN_ERROR</CODE> si un fichier n'a pu être ouvert,
+   * <CODE>Facile.WRITE_ERROR</CODE> en cas d'erreur d'écriture.
+   * @see #trierFichier(String,String,Comparator,long,boolean)
+   * @since 0.4
+   */
+  public static int trierFichier(String entree,String sortie,Comparator<String> ordre,long memoire) {
+    return session.trierFichier(entree,sortie,ordre,memoire);
+  }
+  /**
+   * Trie les lignes d'un fichier, en ne gardant éventuellement qu'un
+   * exemplaire des lignes égales (la première rencontrée).
+   * @param entree le nom du fichier à trier
+   * @param sortie le nom du fichier trié à produire
+   * @param ordre l'ordre des lignes, <CODE>null</CODE> pour l'ordre
+   * alphabétique
+   * @param memoire la mémoire utilisable pour le tri, en octets
+   * @param sansDoublons <CODE>true</CODE> pour supprimer les doublons
+   * @return l'état de l'opération (voir
+   * <CODE>trierFichier(String,String,Comparator,long)</CODE>)
+   * @since 0.4
+   */
+  public static int trierFichier(String entree,String sortie,Comparator<String> ordre,long memoire,boolean sansDoublons) {
+    return session.trierFichier(entree,sortie,ordre,memoire,sansDoublons);
+  }
+  /**
+   * Trie les lignes d'un fichier selon le nombre qui commence chacune
+   * d'elles. Les lignes qui ne commencent pas par un nombre sont placées
+   * à la fin.
+   * @param entree le nom du fichier à trier
+   * @param sortie le nom du fichier trié à produire
+   * @param memoire la mémoire utilisable pour le tri, en octets
+   * @param sansDoublons <CODE>true</CODE> pour ne garder qu'une ligne par
+   * valeur de la clé
+   * @return l'état de l'opération (voir
+   * <CODE>trierFichier(String,String,Comparator,long)</CODE>)
+   * @since 0.4
+   */
+  public static int trierFichierNumerique(String entree,String sortie,long memoire,boolean sansDoublons) {
+    return session.trierFichierNumerique(entree,sortie,memoire,sansDoublons);
+  }
+  /**
+   * Applique une action à chaque ligne d'un fichier, en répartissant le
+   * travail sur plusieurs threads : le fichier est découpé en portions
+   * (formées de lignes entières) traitées simultanément. L'action est
+   * appliquée aux lignes dans leur ordre d'apparition dans le fichier,
+   * jamais à deux lignes en même temps.
+   * <PRE>
+   *	Facile.forEachLine("data.txt",s -&gt; Facile.println(s.length()),4);
+   * </PRE>
+   * @param nom le nom du fichier à lire
+   * @param action l'action à appliquer à chaque ligne (sans sa fin de
+   * ligne)
+   * @param parallelism le nombre de threads
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.OPEN_ERROR</CODE> si le fichier n'a pu être ouvert,
+   * <CODE>Facile.ARG_ERROR</CODE> si les paramètres sont incorrects,
+   * <CODE>Facile.STREAM_ERROR</CODE> en cas d'erreur de lecture.
+   * @see #forEachLineUnordered(String,Consumer,int)
+   * @since 0.4
+   */
+  public static int forEachLine(String nom,Consumer<String> action,int parallelism) {
+    return session.forEachLine(nom,action,parallelism);
+  }
+  /**
+   * Applique une action à chaque ligne d'un fichier, en répartissant le
+   * travail sur plusieurs threads, sans ordre particulier : l'action peut
+   * être appliquée à plusieurs lignes en même temps, et doit donc pouvoir
+   * l'être sans danger (par exemple en n'utilisant que des variables
+   * locales ou des objets prévus pour cela).
+   * @param nom le nom du fichier à lire
+   * @param action l'action à appliquer à chaque ligne
+   * @param parallelism le nombre de threads
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé, un code
+   * d'erreur sinon (voir <CODE>forEachLine</CODE>).
+   * @see #forEachLine(String,Consumer,int)
+   * @since 0.4
+   */
+  public static int forEachLineUnordered(String nom,Consumer<String> action,int parallelism) {
+    return session.forEachLineUnordered(nom,action,parallelism);
+  }
+  /**
+   * Compte les mots restant à lire sur l'entrée standard : le compte de
+   * chaque mot est augmenté dans <code>c</code>. Un mot déjà compté ne
+   * crée aucun objet.
+   * <PRE>
+   *	StringCounter c = new StringCounter();
+   *	Facile.compterLesMots(c);
+   *	for (String mot : c.topK(10)) Facile.println(mot+" "+c.get(mot));
+   * </PRE>
+   * @param c le compteur à remplir
+   * @return le nombre de mots lus.
+   * @since 0.4
+   */
+  public static long compterLesMots(StringCounter c) {
+    return session.compterLesMots(c);
+  }
+  /**
+   * Compte les mots restant à lire dans un fichier ouvert par
+   * <CODE>ouvrirDescripteurEnLecture</CODE>.
+   * @param d le descripteur du fichier
+   * @param c le compteur à remplir
+   * @return le nombre de mots lus.
+   * @since 0.4
+   */
+  public static long compterLesMots(int d,StringCounter c) {
+    return session.compterLesMots(d,c);
+  }
+  /**
+   * Compte les entiers restant à lire sur l'entrée standard. La lecture
+   * s'arrête à la fin de l'entrée, ou au premier mot qui n'est pas un
+   * entier (l'état vaut alors <CODE>Facile.FORMAT_ERROR</CODE>).
+   * @param c le compteur à remplir
+   * @return le nombre d'entiers comptés.
+   * @since 0.4
+   */
+  public static long compterLesEntiers(IntCounter c) {
+    return session.compterLesEntiers(c);
+  }
+  /**
+   * Compte les entiers restant à lire dans un fichier ouvert par
+   * <CODE>ouvrirDescripteurEnLecture</CODE>.
+   * @param d le descripteur du fichier
+   * @param c le compteur à remplir
+   * @return le nombre d'entiers comptés.
+   * @since 0.4
+   */
+  public static long compterLesEntiers(int d,IntCounter c) {
+    return session.compterLesEntiers(d,c);
+  }
+  /**
+   * Compte les mots d'un fichier en répartissant le travail sur plusieurs
+   * threads : chacun compte les mots de portions du fichier dans son propre
+   * compteur, et les compteurs sont regroupés à la fin.
+   * @param nom le nom du fichier à lire
+   * @param parallelism le nombre de threads
+   * @return le compteur obtenu, ou <code>null</code> en cas d'erreur (voir
+   * l'état).
+   * @since 0.4
+   */
+  public static StringCounter compterLesMotsDuFichier(String nom,int parallelism) {
+    return session.compterLesMotsDuFichier(nom,parallelism);
+  }
+
   /**
    * Cette fonction permet de préparer un fichier de sorte que des écritures puissent y être 
    * réalisées.
@@ -1128,38 +1351,270 @@ public final class Facile {
    * @see #ecrireUneLigneDansLeFichier(String)
    */
   public static int ouvrirFichierEnEcriture(String nom) {
-    if (pw!=null)
-      throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
-    try {
-      pw = new PrintWriter(new FileWriter(nom));
-    } catch(IOException ex) {
-      return OPEN_ERROR;
-    }
-    return NO_ERROR;
+    return session.ouvrirFichierEnEcriture(nom);
+  }
+  /**
+   * Prépare un fichier pour des écritures, comme
+   * <CODE>ouvrirFichierEnEcriture(String)</CODE>, mais en codant les
+   * lignes dans le codage indiqué. Les caractères que le codage ne
+   * représente pas sont remplacés par <CODE>'?'</CODE>.
+   * @param nom Le nom du fichier à ouvrir.
+   * @param codage le nom du codage, par exemple <CODE>"UTF-8"</CODE>
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.ARG_ERROR</CODE> si le codage est inconnu,
+   * <CODE>Facile.OPEN_ERROR</CODE> si le fichier n'a pu être ouvert.
+   * @since 0.4
+   * @see #ouvrirFichierEnEcriture(String)
+   */
+  public static int ouvrirFichierEnEcriture(String nom,String codage) {
+    return session.ouvrirFichierEnEcriture(nom,codage);
+  }
+  /**
+   * Prépare un fichier pour des écritures compressées au format
+   * <CODE>gzip</CODE>, qui pourra être relu directement par
+   * <CODE>ouvrirFichierEnLecture</CODE>. La compression est faite par un
+   * thread séparé. Le fichier s'écrit et se ferme comme avec
+   * <CODE>ouvrirFichierEnEcriture</CODE>.
+   * @param nom Le nom du fichier à ouvrir.
+   * @param codage le nom du codage des lignes, par exemple <CODE>"UTF-8"</CODE>
+   * @param niveau le niveau de compression, de <CODE>1</CODE> (le plus
+   * rapide) à <CODE>9</CODE> (le plus compact), <CODE>0</CODE> pour ne
+   * pas compresser ou <CODE>-1</CODE> pour le niveau par défaut
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.ARG_ERROR</CODE> si le codage ou le niveau est incorrect,
+   * <CODE>Facile.OPEN_ERROR</CODE> si le fichier n'a pu être ouvert.
+   * @since 0.4
+   * @see #ouvrirFichierEnEcriture(String,String)
+   */
+  public static int ouvrirFichierCompresseEnEcriture(String nom,String codage,int niveau) {
+    return session.ouvrirFichierCompresseEnEcriture(nom,codage,niveau);
   }
   /**
    * Cette fonction doit être appellée lorsqu'on ne désire plus effectuer d'écriture dans le fichier
    * précédemment ouvert.
+   * Les dernières lignes écrites ne le sont effectivement qu'à ce moment :
+   * en cas d'échec l'état vaut ensuite <CODE>Facile.WRITE_ERROR</CODE>.
    * @see #ouvrirFichierEnEcriture(String nom)
    * @since 0.21
    */
   public static void fermerFichierEnEcriture() {
-    if (pw==null) return;
-    pw.close();
-    pw = null;
+    session.fermerFichierEnEcriture();
   }
   /**
    * Cette fonction permet d'écrire une ligne dans le fichier précédemment ouvert.
    * La ligne écrite est constituée de la chaùine de caractères suivie d'un caractère de fin de ligne.
-   * @return une chaîne de caractères; <CODE>null</CODE> s'il n'y a plus rien à lire.
+   * Les lignes sont accumulées dans un tampon et écrites par grands blocs.
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.WRITE_ERROR</CODE> si une écriture a échoué depuis
+   * l'ouverture du fichier.
    * @see #ouvrirFichierEnEcriture(String nom)
    * @since 0.21
    */
   public static int ecrireUneLigneDansLeFichier(String aEcrire) {
-    if (pw==null)
-      throw new RuntimeException("il faut d'abord ouvrir un fichier avant de tenter d'y écrire...");
-    pw.println(aEcrire);
-    return pw.checkError() ? WRITE_ERROR : NO_ERROR;
+    return session.ecrireUneLigneDansLeFichier(aEcrire);
+  }
+  /**
+   * Ouvre un fichier en lecture et renvoie son descripteur : un numéro
+   * désignant le fichier dans les fonctions de lecture qui le prennent en
+   * paramètre. Plusieurs fichiers peuvent ainsi être ouverts en même
+   * temps, par exemple pour fusionner deux fichiers triés :
+   * <PRE>
+   *	int a = Facile.ouvrirDescripteurEnLecture("a.txt");
+   *	int b = Facile.ouvrirDescripteurEnLecture("b.txt");
+   *	String la = Facile.lireUneLigneDuFichier(a);
+   *	String lb = Facile.lireUneLigneDuFichier(b);
+   *	...
+   *	Facile.fermerFichier(a);
+   *	Facile.fermerFichier(b);
+   * </PRE>
+   * @param nom Le nom du fichier à ouvrir, et qui doit exister préalablement.
+   * @return le descripteur du fichier, ou <CODE>-1</CODE> s'il n'a pu
+   * être ouvert (l'état vaut alors <CODE>Facile.OPEN_ERROR</CODE>).
+   * @since 0.4
+   * @see #fermerFichier(int)
+   * @see #lireUneLigneDuFichier(int)
+   */
+  public static int ouvrirDescripteurEnLecture(String nom) {
+    return session.ouvrirDescripteurEnLecture(nom);
+  }
+  /**
+   * Ouvre (ou crée) un fichier en écriture et renvoie son descripteur.
+   * @param nom Le nom du fichier à ouvrir.
+   * @return le descripteur du fichier, ou <CODE>-1</CODE> s'il n'a pu
+   * être ouvert (l'état vaut alors <CODE>Facile.OPEN_ERROR</CODE>).
+   * @since 0.4
+   * @see #fermerFichier(int)
+   * @see #ecrireUneLigneDansLeFichier(int,String)
+   */
+  public static int ouvrirDescripteurEnEcriture(String nom) {
+    return session.ouvrirDescripteurEnEcriture(nom);
+  }
+  /**
+   * Ouvre un fichier en lecture, décodé dans le codage indiqué, et renvoie
+   * son descripteur.
+   * @param nom Le nom du fichier à ouvrir, et qui doit exister préalablement.
+   * @param codage le nom du codage du fichier
+   * @return le descripteur du fichier, ou <CODE>-1</CODE> en cas d'erreur
+   * (l'état vaut alors <CODE>Facile.ARG_ERROR</CODE> si le codage est
+   * inconnu, <CODE>Facile.OPEN_ERROR</CODE> sinon).
+   * @since 0.4
+   * @see #ouvrirFichierEnLecture(String,String)
+   */
+  public static int ouvrirDescripteurEnLecture(String nom,String codage) {
+    return session.ouvrirDescripteurEnLecture(nom,codage);
+  }
+  /**
+   * Ouvre (ou crée) un fichier en écriture, codé dans le codage indiqué, et
+   * renvoie son descripteur.
+   * @param nom Le nom du fichier à ouvrir.
+   * @param codage le nom du codage
+   * @return le descripteur du fichier, ou <CODE>-1</CODE> en cas d'erreur
+   * (voir <CODE>ouvrirDescripteurEnLecture(String,String)</CODE>).
+   * @since 0.4
+   * @see #ouvrirFichierEnEcriture(String,String)
+   */
+  public static int ouvrirDescripteurEnEcriture(String nom,String codage) {
+    return session.ouvrirDescripteurEnEcriture(nom,codage);
+  }
+  /**
+   * Ouvre (ou crée) un fichier en écriture compressée au format
+   * <CODE>gzip</CODE> et renvoie son descripteur.
+   * @param nom Le nom du fichier à ouvrir.
+   * @param codage le nom du codage des lignes
+   * @param niveau le niveau de compression (voir
+   * <CODE>ouvrirFichierCompresseEnEcriture</CODE>)
+   * @return le descripteur du fichier, ou <CODE>-1</CODE> en cas d'erreur
+   * (l'état vaut alors <CODE>Facile.ARG_ERROR</CODE> si le codage ou le
+   * niveau est incorrect, <CODE>Facile.OPEN_ERROR</CODE> sinon).
+   * @since 0.4
+   * @see #ouvrirFichierCompresseEnEcriture(String,String,int)
+   */
+  public static int ouvrirDescripteurCompresseEnEcriture(String nom,String codage,int niveau) {
+    return session.ouvrirDescripteurCompresseEnEcriture(nom,codage,niveau);
+  }
+  /**
+   * Ferme le fichier désigné par un descripteur ; le descripteur ne doit
+   * plus être utilisé. Pour un fichier ouvert en écriture, l'état vaut
+   * ensuite <CODE>Facile.WRITE_ERROR</CODE> si une écriture a échoué.
+   * @param d le descripteur du fichier
+   * @since 0.4
+   */
+  public static void fermerFichier(int d) {
+    session.fermerFichier(d);
+  }
+  /**
+   * Lit une ligne du fichier désigné par un descripteur.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @return une chaîne de caractères; <CODE>null</CODE> s'il n'y a plus
+   * rien à lire.
+   * @see #ouvrirDescripteurEnLecture(String nom)
+   * @since 0.4
+   */
+  public static String lireUneLigneDuFichier(int d) {
+    return session.lireUneLigneDuFichier(d);
+  }
+  /**
+   * Lit un lexème du fichier désigné par un descripteur et le convertit
+   * en <CODE>int</CODE>, comme le fait <CODE>readInt()</CODE> sur l'entrée.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @return le lexème suivant en tant qu'entier (<CODE>int</CODE>)
+   * @see #ouvrirDescripteurEnLecture(String nom)
+   * @since 0.4
+   */
+  public static int lireUnEntierDuFichier(int d) {
+    return session.lireUnEntierDuFichier(d);
+  }
+  /**
+   * Lit un lexème du fichier désigné par un descripteur et le convertit
+   * en <CODE>long</CODE>.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @return le lexème suivant en tant qu'entier long (<CODE>long</CODE>)
+   * @see #lireUnEntierDuFichier(int)
+   * @since 0.4
+   */
+  public static long lireUnEntierLongDuFichier(int d) {
+    return session.lireUnEntierLongDuFichier(d);
+  }
+  /**
+   * Lit un lexème du fichier désigné par un descripteur et le convertit
+   * en <CODE>double</CODE>.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @return le lexème suivant en tant que réel (<CODE>double</CODE>)
+   * @see #lireUnEntierDuFichier(int)
+   * @since 0.4
+   */
+  public static double lireUnReelDuFichier(int d) {
+    return session.lireUnReelDuFichier(d);
+  }
+  /**
+   * Lit un mot du fichier désigné par un descripteur.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @return le mot suivant (<code>null</code> en cas d'échec).
+   * @see #lireUnEntierDuFichier(int)
+   * @since 0.4
+   */
+  public static String lireUnMotDuFichier(int d) {
+    return session.lireUnMotDuFichier(d);
+  }
+  /**
+   * Écrit une ligne dans le fichier désigné par un descripteur.
+   * @param d le descripteur d'un fichier ouvert en écriture
+   * @param aEcrire la ligne à écrire, sans sa fin de ligne
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.WRITE_ERROR</CODE> si une écriture a échoué depuis
+   * l'ouverture du fichier.
+   * @see #ouvrirDescripteurEnEcriture(String nom)
+   * @since 0.4
+   */
+  public static int ecrireUneLigneDansLeFichier(int d,String aEcrire) {
+    return session.ecrireUneLigneDansLeFichier(d,aEcrire);
+  }
+  /**
+   * Lit directement la ligne numéro <CODE>n</CODE> d'un fichier ouvert par
+   * descripteur, sans lire celles qui la précèdent. Au premier appel, le
+   * fichier est parcouru une fois pour repérer le début de chaque ligne ;
+   * si le fichier s'allonge ensuite, seule la partie ajoutée est parcourue.
+   * La lecture ligne à ligne par <CODE>lireUneLigneDuFichier(d)</CODE>
+   * n'en est pas affectée.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @param n le numéro de la ligne, à partir de <CODE>1</CODE>
+   * @return la ligne, ou <CODE>null</CODE> si elle n'existe pas (l'état
+   * vaut alors <CODE>Facile.STREAM_ERROR</CODE>, ou
+   * <CODE>Facile.ARG_ERROR</CODE> si <CODE>n&lt;1</CODE>).
+   * @see #ouvrirDescripteurEnLecture(String nom)
+   * @see #indexerFichier(int,String)
+   * @since 0.4
+   */
+  public static String lireLigne(int d,long n) {
+    return session.lireLigne(d,n);
+  }
+  /**
+   * Renvoie le nombre de lignes d'un fichier ouvert par descripteur.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @return le nombre de lignes
+   * @see #lireLigne(int,long)
+   * @since 0.4
+   */
+  public static long nombreDeLignes(int d) {
+    return session.nombreDeLignes(d);
+  }
+  /**
+   * Construit l'index des lignes d'un fichier ouvert par descripteur et
+   * l'enregistre dans un second fichier. Si ce second fichier existe déjà,
+   * l'index qu'il contient est repris et seule la partie du fichier ajoutée
+   * depuis est parcourue. Un index enregistré qui ne correspond plus au
+   * fichier (raccourci, ou réécrit au début ou à la fin de la partie
+   * indexée) est ignoré et l'index est reconstruit.
+   * @param d le descripteur d'un fichier ouvert en lecture
+   * @param nomIndex le nom du fichier d'index, <CODE>null</CODE> pour ne
+   * pas enregistrer l'index
+   * @return <CODE>Facile.NO_ERROR</CODE> si tout s'est bien passé,
+   * <CODE>Facile.STREAM_ERROR</CODE> sinon.
+   * @see #lireLigne(int,long)
+   * @since 0.4
+   */
+  public static int indexerFichier(int d,String nomIndex) {
+    return session.indexerFichier(d,nomIndex);
   }
   /**
    * Cette méthode permet de dormir pour une durée exprimée en
@@ -1177,59 +1632,12 @@ public final class Facile {
    * Gets the inner Turtle.
    */
   public static Turtle getTurtle() {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    return theDrawable.getTurtle();
+    return session.getTurtle();
   }
   /**
    * Shows the turtle on screen.
    */
   public static void setTurtleMode(boolean b) {
-    if (theFrame==null)
-      throw new RuntimeException("il manque un appel à startDrawings()");
-    theDrawable.setTurtleMode(b);
-  }
-  private static class MyTurtle extends Turtle {
-    private Drawable d;
-    public MyTurtle(Point2D p,double angle,Drawable d) {
-      this(p.getX(),p.getY(),angle,d);
-    }
-    public MyTurtle(double x,double y,double angle,Drawable d) {
-      super(x,y,angle);
-      this.d = d;
-    }
-    public void rectangle(int size) {
-      if (d==null) return;
-      d.fillRect((int)getState().getX()-size/2,(int)getState().getY()-size/2,
-                 size,size);
-      d.repaint();
-    }
-    public MyTurtle(Drawable d) {
-      super();
-      this.d = d;
-    }
-    public void lineTo(double x,double y) {
-      if (d!=null) d.drawLine((int)(getState().getX()),
-                              (int)(getState().getY()),(int)x,(int)y);
-      jumpTo(x,y);
-    }
-    public void jumpTo(double x,double y) {
-      super.jumpTo(x,y);
-      if (d!=null) d.repaint();
-    }
-    public void jumpTo(double distance) {
-      super.jumpTo(distance);
-      if (d!=null) d.repaint();
-    }
-    public void lineTo(double distance) {
-      double newX = getState().getX()+distance*Math.cos(getState().getAngle());
-      double newY = getState().getY()+distance*Math.sin(getState().getAngle());
-      if (d!=null) d.drawLine((int)(getState().getX()),(int)(getState().getY()),
-                              (int)newX,(int)newY);
-      jumpTo(distance);
-    }
-    // public void invalidate() {
-    //   d = null;
-    // }
+    session.setTurtleMode(b);
   }
 }
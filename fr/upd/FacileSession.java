@@ -0,0 +1,1769 @@
+package fr.upd;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.*;
+import java.awt.geom.*;
+import java.awt.font.*;
+
+/**
+ * Une <code>FacileSession</code> regroupe tout l'état des fonctions de la
+ * classe <code>Facile</code> : découpage de l'entrée, état de la dernière
+ * opération, fichiers ouverts et zone de dessin.
+ * <P>
+ * Chaque méthode se comporte comme la fonction de même nom de la classe
+ * <code>Facile</code>, qui ne fait que s'adresser à une session par défaut.
+ * Des tâches indépendantes peuvent ainsi s'exécuter en même temps, dans
+ * des threads différents, chacune avec sa propre session :
+ * <PRE>
+ * FacileSession s = new FacileSession(entree,sortie);
+ * int n = s.readInt();
+ * s.println(n*n);
+ * </PRE>
+ * Une session ne doit pas être partagée entre plusieurs threads.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ * @see Facile
+ */
+public final class FacileSession {
+  /**
+   * A private internally useful class to support drawings...
+   */
+  private static class Drawable extends JPanel {
+    private int width, height; // size of drawing area
+    private Image backingStore;
+    private Graphics2D backingGraphics;
+    private MyTurtle turtle;
+    private boolean turtleMode; // turtle or coordinates mode ?
+    public Drawable(int width,int height) {
+      turtle = new FacileSession.MyTurtle(this);
+      turtleMode = false;
+      setSize(width,height);
+      backingStore = new BufferedImage(width,height,BufferedImage.TYPE_INT_ARGB);
+      backingGraphics = (Graphics2D)backingStore.getGraphics();
+    }
+    public Turtle getTurtle() {
+      return turtle;
+    }
+    public boolean isTurtleModeOn() {
+      return turtleMode;
+    }
+    public void turtleOn() {
+      setTurtleMode(true);
+    }
+    public void turtleOff() {
+      setTurtleMode(false);
+    }
+    public void setTurtleMode(boolean b) {
+      turtleMode = b;
+      repaint();
+    }
+    public void setSize(int width,int height) {
+      super.setSize(width,height);
+      this.width = width;
+      this.height = height;
+    }
+    public Dimension getPreferredSize() {
+      return new Dimension(width,height);
+    }
+    public void paintComponent(Graphics g) {
+      g.clearRect(0,0,width,height);
+      g.drawImage(backingStore,0,0,this);
+      if (isTurtleModeOn()) {
+        g.setColor(Color.RED);
+        g.fillOval((int)(turtle.getState().getX())-3,
+                   (int)(turtle.getState().getY())-3,6,6);
+      }
+    }
+    public void drawLine(int x0,int y0,int x1, int y1) {
+      if (backingGraphics==null) return;
+      backingGraphics.drawLine(x0,y0,x1,y1);
+      repaint();
+    }
+    
+    public void drawRect(int x, int y, int l, int h) {
+      if (backingGraphics==null) return;
+      backingGraphics.drawRect(x,y,l,h);
+      repaint();
+    }
+
+    public void fillRect(int x, int y, int l, int h) {
+      if (backingGraphics==null) return;
+      backingGraphics.fillRect(x,y,l,h);
+      repaint();
+    }
+
+    public void fillPolygon(int []x, int []y, int n) {
+      if (backingGraphics==null) return;
+      backingGraphics.fillPolygon(x,y,n);
+      repaint();
+    }
+
+    public void drawPolygon(int []x, int []y, int n) {
+      if (backingGraphics==null) return;
+      backingGraphics.drawPolygon(x,y,n);
+      repaint();
+    }
+
+    public void drawOval(int x, int y, int l, int h) {
+      if (backingGraphics==null) return;
+      backingGraphics.drawOval(x,y,l,h);
+      repaint();
+    }
+
+    public void fillOval(int x, int y, int l, int h) {
+      if (backingGraphics==null) return;
+      backingGraphics.fillOval(x,y,l,h);
+      repaint();
+    }
+
+    public void drawString(int x,int y,String s) {
+      FontMetrics fm = backingGraphics.getFontMetrics();
+      float h = fm.getHeight();
+      //      float w = fm.stringWidth(s);
+      float descent = fm.getDescent();
+      backingGraphics.drawString(s,(int)(x+4),(int)(y+(h/2)-(descent/2)));
+      repaint();
+    }
+
+    public void drawArc(int x, int y, int l, int h, int angleInit, int angleCouvert) {
+      if (backingGraphics==null) return;
+      backingGraphics.drawArc(x,y,l,h, angleInit, angleCouvert);
+      repaint();
+    }
+
+    public void fillArc(int x, int y, int l, int h, int angleInit, int angleCouvert) {
+      if (backingGraphics==null) return;
+      backingGraphics.fillArc(x,y,l,h, angleInit, angleCouvert);
+      repaint();
+    }
+
+    public void setColor(int c1,int c2,int c3) {
+      if (backingGraphics==null) return;
+      backingGraphics.setColor(new Color(c1,c2,c3));
+    }
+    public void clearArea() {
+      if (backingGraphics==null) return;
+      backingGraphics.clearRect(0,0,width,height);
+      repaint();
+    }
+
+  } // end class Drawable
+
+  /**
+   * Le flot d'entrée de la session.
+   */
+  private InputStream in;
+  /**
+   * Le flot de sortie de la session, <code>null</code> pour la sortie
+   * standard courante.
+   */
+  private PrintStream out;
+  /**
+   * Référence sur le flot de découpage en lexèmes.
+   */
+  private MyTokenizer theTokenizer;
+  /**
+   * Crée une session lisant l'entrée standard et écrivant sur la sortie
+   * standard.
+   */
+  public FacileSession() {
+    this(System.in,null);
+  }
+  /**
+   * Crée une session lisant et écrivant sur les flots donnés.
+   * @param in le flot d'entrée
+   * @param out le flot de sortie, <code>null</code> pour écrire sur
+   * <code>System.out</code>
+   */
+  public FacileSession(InputStream in,PrintStream out) {
+    if (in==null) throw new NullPointerException();
+    this.in = in;
+    this.out = out;
+    theTokenizer = new MyTokenizer(new InputStreamReader(in));
+  }
+  /**
+   * Les options de lecture de l'entrée : lecture ASCII directe, lecture
+   * anticipée, taille du cache de mots (0 si aucun).
+   */
+  private boolean fastAscii = false;
+  private boolean prefetch = false;
+  private int stringCacheSize = 0;
+  /**
+   * Taille et nombre des blocs lus par anticipation.
+   */
+  private static final int PREFETCH_BLOCK = 1 << 13;
+  private static final int PREFETCH_BLOCKS = 16;
+  /**
+   * Indique si l'entrée a déjà été lue.
+   */
+  private boolean inputStarted = false;
+  /**
+   * Remplace le découpeur de l'entrée par un découpeur tenant compte des
+   * options de lecture. Les caractères déjà lus par l'ancien découpeur
+   * seraient perdus : les options doivent donc être choisies avant la
+   * première lecture. L'ancien découpeur n'a alors rien lu, pas même par
+   * anticipation. Les options ne sont retenues qu'une fois ce contrôle
+   * passé.
+   */
+  private void resetInput(boolean fastAscii,boolean prefetch) {
+    if (inputStarted)
+      throw new RuntimeException("les options de lecture doivent être choisies avant la première lecture");
+    this.fastAscii = fastAscii;
+    this.prefetch = prefetch;
+    Reader r;
+    if (fastAscii) r = new ChannelReader(Channels.newChannel(in));
+    else r = new InputStreamReader(in);
+    if (prefetch) r = new PrefetchReader(r,PREFETCH_BLOCK,PREFETCH_BLOCKS);
+    theTokenizer = new MyTokenizer(r);
+    theTokenizer.setInternCache(stringCacheSize);
+  }
+  private PrintStream out() {
+    return out==null ? System.out : out;
+  }
+  /**
+   * Lit l'entrée octet par octet, sans décodeur tant qu'elle est ASCII.
+   * @see Facile#useFastAsciiInput()
+   */
+  public void useFastAsciiInput() {
+    resetInput(true,prefetch);
+  }
+  /**
+   * Lit l'entrée par anticipation, dans un thread séparé.
+   * @see Facile#usePrefetchInput()
+   */
+  public void usePrefetchInput() {
+    if (prefetch) return;
+    resetInput(fastAscii,true);
+  }
+  /**
+   * Partage les chaînes des mots lus fréquemment, dans un cache de la
+   * taille donnée (<code>0</code> pour aucun cache).
+   * @see Facile#useStringCache(int)
+   */
+  public void useStringCache(int size) {
+    stringCacheSize = size;
+    theTokenizer.setInternCache(size);
+  }
+  /**
+   * Renvoie la proportion des mots lus trouvés dans le cache.
+   * @see Facile#getStringCacheHitRate()
+   */
+  public double getStringCacheHitRate() {
+    long hits = theTokenizer.getInternHits();
+    long total = hits+theTokenizer.getInternMisses();
+    return total==0 ? 0 : (double)hits/total;
+  }
+  /**
+   * Code d'erreur interne.
+   */
+  private int error;
+  /**
+   * Conversion des chaînes en nombres, sans exception.
+   */
+  private NumberParser parser = new NumberParser();
+  /**
+   * @see Facile#isOk()
+   */
+  public boolean isOk() {
+    return getStatus()==Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#getStatus()
+   */
+  public int getStatus() {
+    return error;
+  }
+
+  /**
+   * @see Facile#readChar()
+   */
+  public char readChar() {
+    prompt();
+    int c;
+    try {
+      c = theTokenizer.read();
+      if (c!=MyTokenizer.EOF) {
+        error = Facile.NO_ERROR;
+        return (char)c;
+      } else {
+        error = Facile.STREAM_ERROR;
+        return '\u0000';
+      }
+    } catch(java.io.IOException ioe) {
+      error = Facile.STREAM_ERROR;
+      return '\u0000';
+    }
+  }
+
+  /**
+   * @see Facile#readLine()
+   */
+  public String readLine() {
+    prompt();
+    String s = theTokenizer.readLine();
+    error = s==null ? Facile.STREAM_ERROR : Facile.NO_ERROR;
+    return s;
+  }
+
+  /**
+   * @see Facile#stringToBoolean(String)
+   */
+  public boolean stringToBoolean(String s) {
+    error = Facile.NO_ERROR;
+    if (s==null) {
+      error = Facile.ARG_ERROR;
+      return false;
+    }
+    try {
+      return Boolean.valueOf(s).booleanValue();
+    } catch(NumberFormatException nfe) {
+      error = Facile.FORMAT_ERROR;
+      return false;
+    }
+  }
+  /**
+   * @see Facile#stringToInt(String)
+   */
+  public int stringToInt(String s) {
+    error = Facile.NO_ERROR;
+    if (s==null) {
+      error = Facile.ARG_ERROR;
+      return (int)0;
+    }
+    int value = parser.parseInt(s);
+    if (parser.failed()) error = Facile.FORMAT_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#stringToByte(String)
+   */
+  public byte stringToByte(String s) {
+    error = Facile.NO_ERROR;
+    if (s==null) {
+      error = Facile.ARG_ERROR;
+      return (byte)0;
+    }
+    byte value = parser.parseByte(s);
+    if (parser.failed()) error = Facile.FORMAT_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#stringToDouble(String)
+   */
+  public double stringToDouble(String s) {
+    error = Facile.NO_ERROR;
+    if (s==null) {
+      error = Facile.ARG_ERROR;
+      return (double)0;
+    }
+    double value = parser.parseDouble(s);
+    if (parser.failed()) error = Facile.FORMAT_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#stringToFloat(String)
+   */
+  public float stringToFloat(String s) {
+    error = Facile.NO_ERROR;
+    if (s==null) {
+      error = Facile.ARG_ERROR;
+      return (float)0;
+    }
+    float value = parser.parseFloat(s);
+    if (parser.failed()) error = Facile.FORMAT_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#stringToLong(String)
+   */
+  public long stringToLong(String s) {
+    error = Facile.NO_ERROR;
+    if (s==null) {
+      error = Facile.ARG_ERROR;
+      return (long)0;
+    }
+    long value = parser.parseLong(s);
+    if (parser.failed()) error = Facile.FORMAT_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#readInt()
+   */
+  public int readInt() {
+    prompt();
+    return readInt(theTokenizer);
+  }
+  private int readInt(MyTokenizer t) {
+    int tokenType;
+    tokenType = t.nextToken();
+    if (tokenType==MyTokenizer.EOF) {
+      error = Facile.STREAM_ERROR;
+      return 0;
+    }
+    int value = t.intValue();
+    error = t.hasFormatError() ? Facile.FORMAT_ERROR : Facile.NO_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#readLong()
+   */
+  public long readLong() {
+    prompt();
+    return readLong(theTokenizer);
+  }
+  private long readLong(MyTokenizer t) {
+    int tokenType;
+    tokenType = t.nextToken();
+    if (tokenType==MyTokenizer.EOF) {
+      error = Facile.STREAM_ERROR;
+      return 0;
+    }
+    long value = t.longValue();
+    error = t.hasFormatError() ? Facile.FORMAT_ERROR : Facile.NO_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#readFloat()
+   */
+  public float readFloat() {
+    prompt();
+    return readFloat(theTokenizer);
+  }
+  private float readFloat(MyTokenizer t) {
+    int tokenType;
+    tokenType = t.nextToken();
+    if (tokenType==MyTokenizer.EOF) {
+      error = Facile.STREAM_ERROR;
+      return 0;
+    }
+    float value = t.floatValue();
+    error = t.hasFormatError() ? Facile.FORMAT_ERROR : Facile.NO_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#readDouble()
+   */
+  public double readDouble() {
+    prompt();
+    return readDouble(theTokenizer);
+  }
+  private double readDouble(MyTokenizer t) {
+    int tokenType;
+    tokenType = t.nextToken();
+    if (tokenType==MyTokenizer.EOF) {
+      error = Facile.STREAM_ERROR;
+      return 0;
+    }
+    double value = t.doubleValue();
+    error = t.hasFormatError() ? Facile.FORMAT_ERROR : Facile.NO_ERROR;
+    return value;
+  }
+  /**
+   * Positionne l'état à l'issue d'une lecture groupée de <CODE>len</CODE>
+   * valeurs dont <CODE>n</CODE> ont été obtenues.
+   */
+  private int bulkStatus(int n,int len) {
+    if (n==len) error = Facile.NO_ERROR;
+    else error = theTokenizer.hasFormatError() ? Facile.FORMAT_ERROR : Facile.STREAM_ERROR;
+    return n;
+  }
+  /**
+   * @see Facile#readInts(int[],int,int)
+   */
+  public int readInts(int []dst,int off,int len) {
+    prompt();
+    if (dst==null || off<0 || len<0 || off>dst.length-len) {
+      error = Facile.ARG_ERROR;
+      return 0;
+    }
+    return bulkStatus(theTokenizer.readInts(dst,off,len),len);
+  }
+  /**
+   * @see Facile#readInts(int[])
+   */
+  public int readInts(int []dst) {
+    return readInts(dst,0,dst==null ? 0 : dst.length);
+  }
+  /**
+   * @see Facile#readLongs(long[],int,int)
+   */
+  public int readLongs(long []dst,int off,int len) {
+    prompt();
+    if (dst==null || off<0 || len<0 || off>dst.length-len) {
+      error = Facile.ARG_ERROR;
+      return 0;
+    }
+    return bulkStatus(theTokenizer.readLongs(dst,off,len),len);
+  }
+  /**
+   * @see Facile#readLongs(long[])
+   */
+  public int readLongs(long []dst) {
+    return readLongs(dst,0,dst==null ? 0 : dst.length);
+  }
+  /**
+   * @see Facile#readDoubles(double[],int,int)
+   */
+  public int readDoubles(double []dst,int off,int len) {
+    prompt();
+    if (dst==null || off<0 || len<0 || off>dst.length-len) {
+      error = Facile.ARG_ERROR;
+      return 0;
+    }
+    return bulkStatus(theTokenizer.readDoubles(dst,off,len),len);
+  }
+  /**
+   * @see Facile#readDoubles(double[])
+   */
+  public int readDoubles(double []dst) {
+    return readDoubles(dst,0,dst==null ? 0 : dst.length);
+  }
+  /**
+   * @see Facile#readString()
+   */
+  public String readString() {
+    prompt();
+    return readString(theTokenizer);
+  }
+  private String readString(MyTokenizer t) {
+    int tokenType;
+    tokenType = t.nextToken();
+    if (tokenType==MyTokenizer.EOF) {
+      error = Facile.STREAM_ERROR;
+      return null;
+    }
+    error = Facile.NO_ERROR;
+    return t.currentToken();
+  }
+  /**
+   * Le tampon de la sortie en mode tamponné, <code>null</code> sinon.
+   */
+  private OutputBuffer console = null;
+  /**
+   * Le flot des écritures asynchrones, <code>null</code> si aucun.
+   */
+  private AsyncOutputStream async = null;
+  /**
+   * Les tampons de sortie à vider à la fin de la machine, tenus par une
+   * référence forte : la sortie d'une session abandonnée avant la fin du
+   * programme est tout de même écrite. Un tampon remplacé est retiré.
+   */
+  private static final Set<OutputBuffer> consoles = new LinkedHashSet<OutputBuffer>();
+  /**
+   * Les fichiers ouverts et pas encore fermés, fermés à la fin de la
+   * machine : leurs dernières lignes sont écrites et un fichier compressé
+   * reçoit sa fin de flot gzip.
+   */
+  private static final Set<Fichier> opened = new LinkedHashSet<Fichier>();
+  private static boolean hooked = false;
+  /**
+   * Remplace un tampon par un autre parmi ceux à vider à la fin de la
+   * machine.
+   */
+  private static synchronized void flushAtExit(OutputBuffer previous,OutputBuffer b) {
+    if (previous!=null) consoles.remove(previous);
+    if (b!=null) consoles.add(b);
+    hook();
+  }
+  /**
+   * Ajoute ou retire un fichier parmi ceux à fermer à la fin de la
+   * machine.
+   */
+  private static synchronized void closeAtExit(Fichier f,boolean close) {
+    if (f==null) return;
+    if (close) opened.add(f);
+    else opened.remove(f);
+    hook();
+  }
+  /**
+   * Installe, une seule fois, le crochet qui vide les tampons et ferme les
+   * fichiers à la fin de la machine.
+   */
+  private static void hook() {
+    if (hooked) return;
+    hooked = true;
+    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+        public void run() {
+          List<OutputBuffer> buffers;
+          List<Fichier> files;
+          synchronized(FacileSession.class) {
+            buffers = new ArrayList<OutputBuffer>(consoles);
+            files = new ArrayList<Fichier>(opened);
+          }
+          for (OutputBuffer b : buffers) b.flush();
+          for (Fichier f : files) f.close();
+        }
+      }));
+  }
+  /**
+   * Remplace le tampon de la sortie, après avoir vidé le précédent, et
+   * fait vider le nouveau à la fin de la machine.
+   */
+  private void setConsole(OutputBuffer b) {
+    if (console!=null) console.flush();
+    flushAtExit(console,b);
+    console = b;
+  }
+  /**
+   * Accumule les écritures dans un tampon, vidé lorsqu'il est plein, avant
+   * une lecture et à la fin du programme.
+   * @see Facile#useBufferedOutput()
+   */
+  public void useBufferedOutput() {
+    if (console==null) setConsole(new OutputBuffer(out()));
+  }
+  /**
+   * Taille par défaut de la file des écritures asynchrones, en blocs.
+   */
+  private static final int ASYNC_QUEUE = 64;
+  /**
+   * Fait faire les écritures par un thread séparé.
+   * @see Facile#useAsyncOutput()
+   */
+  public void useAsyncOutput() {
+    useAsyncOutput(ASYNC_QUEUE,true);
+  }
+  /**
+   * Fait faire les écritures par un thread séparé, avec une file de
+   * <code>queueSize</code> blocs qui, pleine, fait attendre l'écrivain ou
+   * grandit.
+   * @see Facile#useAsyncOutput(int,boolean)
+   */
+  public void useAsyncOutput(int queueSize,boolean blockWhenFull) {
+    AsyncOutputStream previous = async;
+    async = new AsyncOutputStream(out(),queueSize,blockWhenFull);
+    setConsole(new OutputBuffer(async));
+    // le précédent a été vidé : on arrête son thread d'écriture
+    if (previous!=null) {
+      try {
+        previous.close();
+      } catch(IOException ex) {
+        error = Facile.WRITE_ERROR;
+      }
+    }
+  }
+  /**
+   * Écrit tout ce qui est en attente sur la sortie et dans les fichiers
+   * ouverts en écriture.
+   * @see Facile#flush()
+   */
+  public void flush() {
+    if (console!=null) console.flush();
+    else out().flush();
+    if (pw!=null) pw.flush();
+    for (Fichier f : fichiers)
+      if (f!=null) f.flush();
+  }
+  /**
+   * Vide la sortie tamponnée avant une lecture sur l'entrée, pour qu'une
+   * invite éventuelle soit visible, et note que l'entrée a commencé d'être
+   * lue.
+   */
+  private void prompt() {
+    inputStarted = true;
+    if (console!=null) console.flush();
+  }
+  /**
+   * @see Facile#print(char)
+   */
+  public void print(char c) {
+    if (console!=null) console.append(c);
+    else out().print(c);
+  }
+  /**
+   * @see Facile#print(int)
+   */
+  public void print(int i) {
+    if (console!=null) console.append(i);
+    else out().print(i);
+  }
+  /**
+   * @see Facile#print(boolean)
+   */
+  public void print(boolean b) {
+    if (console!=null) console.append(String.valueOf(b));
+    else out().print(b);
+  }
+  /**
+   * @see Facile#print(long)
+   */
+  public void print(long l) {
+    if (console!=null) console.append(l);
+    else out().print(l);
+  }
+  /**
+   * @see Facile#print(float)
+   */
+  public void print(float f) {
+    if (console!=null) console.append(String.valueOf(f));
+    else out().print(f);
+  }
+  /**
+   * @see Facile#print(double)
+   */
+  public void print(double d) {
+    if (console!=null) console.append(d);
+    else out().print(d);
+  }
+  /**
+   * @see Facile#print(Object)
+   */
+  public void print(Object o) {
+    if (console!=null) console.append(String.valueOf(o));
+    else out().print(o);
+  }
+  /**
+   * @see Facile#print(String)
+   */
+  public void print(String s) {
+    if (console!=null) console.append(s);
+    else out().print(s);
+  }
+  /**
+   * @see Facile#println(char)
+   */
+  public void println(char c) {
+    if (console!=null) console.append(c).newLine();
+    else out().println(c);
+  }
+  /**
+   * @see Facile#println(boolean)
+   */
+  public void println(boolean b) {
+    if (console!=null) console.append(String.valueOf(b)).newLine();
+    else out().println(b);
+  }
+  /**
+   * @see Facile#println(int)
+   */
+  public void println(int i) {
+    if (console!=null) console.append(i).newLine();
+    else out().println(i);
+  }
+  /**
+   * @see Facile#println(long)
+   */
+  public void println(long l) {
+    if (console!=null) console.append(l).newLine();
+    else out().println(l);
+  }
+  /**
+   * @see Facile#println(float)
+   */
+  public void println(float f) {
+    if (console!=null) console.append(String.valueOf(f)).newLine();
+    else out().println(f);
+  }
+  /**
+   * @see Facile#println(double)
+   */
+  public void println(double d) {
+    if (console!=null) console.append(d).newLine();
+    else out().println(d);
+  }
+  /**
+   * @see Facile#println(Object)
+   */
+  public void println(Object o) {
+    if (console!=null) console.append(String.valueOf(o)).newLine();
+    else out().println(o);
+  }
+  /**
+   * @see Facile#println(String)
+   */
+  public void println(String s) {
+    if (console!=null) console.append(s).newLine();
+    else out().println(s);
+  }
+  /**
+   * @see Facile#println()
+   */
+  public void println() {
+    if (console!=null) console.newLine();
+    else out().println();
+  }
+  /**
+   * Affiche un morceau de modèle.
+   */
+  void write(char s[]) {
+    if (console!=null) console.append(s,0,s.length);
+    else out().print(s);
+  }
+  /**
+   * @see Facile#template(String)
+   */
+  public Template template(String modele) {
+    return new Template(this,modele);
+  }
+  private JFrame theFrame = null;
+  private Drawable theDrawable = null;
+  /**
+   * @see Facile#startDrawings()
+   */
+  public void startDrawings() {
+    startDrawings(300,300);
+  }
+  private static class GraphicsInitializer implements Runnable {
+    private int width, height;
+    private JFrame theFrame;
+    private Drawable theDrawable;
+    public JFrame getTheFrame() {
+      return theFrame;
+    }
+    public Drawable getTheDrawable() {
+      return theDrawable;
+    }
+    public GraphicsInitializer(int w,int h) {
+      width = w;
+      height = h;
+    }
+    public void run() {
+      theFrame = new JFrame("Dessin");
+      theFrame.setResizable(false);
+      theDrawable = new Drawable(width,height);
+      theFrame.getContentPane().add(theDrawable);
+      theFrame.pack();
+      theFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+      theFrame.setVisible(true);
+    }
+  }
+  /**
+   * @see Facile#startDrawings(int,int)
+   */
+  public void startDrawings(int width,int height) {
+    if (theFrame!=null) return;
+    GraphicsInitializer t = new GraphicsInitializer(width,height);
+    try {
+      SwingUtilities.invokeAndWait(t);
+      theFrame = t.getTheFrame();
+      theDrawable = t.getTheDrawable();
+    } catch(Exception e) {
+      System.err.println("Impossible de créer le contexte graphique lors de l'appel à startDrawings()");
+    }
+  }
+  /**
+   * @see Facile#stopDrawings()
+   */
+  public void stopDrawings() {
+    if (theFrame==null) return;
+    theFrame.dispose();
+    theFrame=null;
+  }
+  /**
+   * @see Facile#drawPoint(int,int)
+   */
+  public void drawPoint(int x,int y) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.drawLine(x,y,x,y);
+  }
+  /**
+   * @see Facile#setGray(int)
+   */
+  public void setGray(int c) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.setColor(c,c,c);
+  }
+  /**
+   * @see Facile#setColor(int,int,int)
+   */
+  public void setColor(int r,int g,int b) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.setColor(r,g,b);
+  }
+  /**
+   * @see Facile#drawLine(int,int,int,int)
+   */
+  public void drawLine(int x0,int y0,int x1, int y1) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.drawLine(x0,y0,x1,y1);
+  }
+  /**
+   * @see Facile#drawPolygon(int[],int[],int)
+   */
+  public void drawPolygon(int []x,int []y,int n) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.drawPolygon(x,y,n);
+  }
+  /**
+   * @see Facile#fillPolygon(int[],int[],int)
+   */
+  public void fillPolygon(int []x,int []y,int n) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.fillPolygon(x,y,n);
+  }
+
+
+  /**
+   * @see Facile#drawRect(int,int,int,int)
+   */
+  public void drawRect(int x,int y,int l, int h) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.drawRect(x,y,l,h);
+  }
+
+  /**
+   * @see Facile#fillRect(int,int,int,int)
+   */
+  public void fillRect(int x,int y,int l, int h) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.fillRect(x,y,l,h);
+  }
+
+  /**
+   * @see Facile#drawCircle(int,int,int)
+   */
+  public void drawCircle(int x,int y,int r) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.drawOval(x-r, y-r, 2*r, 2*r);
+  }
+
+  /**
+   * @see Facile#fillCircle(int,int,int)
+   */
+  public void fillCircle(int x,int y,int r) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.fillOval(x-r, y-r, 2*r, 2*r);
+  }
+
+
+  /**
+   * @see Facile#drawArc(int,int,int,int,int)
+   */
+  public void drawArc(int x,int y,int r, int angleInit, int angleCouvert) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.drawArc(x-r, y-r, 2*r, 2*r, angleInit, angleCouvert);
+  }
+
+  /**
+   * @see Facile#drawString(int,int,String)
+   */
+  public void drawString(int x,int y,String s) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.drawString(x,y,s);
+  }
+
+  /**
+   * @see Facile#fillArc(int,int,int,int,int)
+   */
+  public void fillArc(int x,int y,int r, int angleInit, int angleCouvert) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.fillArc(x-r, y-r, 2*r, 2*r, angleInit, angleCouvert);
+  }
+
+  /**
+   * @see Facile#clearArea()
+   */
+  public void clearArea() {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.clearArea();
+  }
+
+  private void printExternalProcessOutputs(Process p) {
+    try {
+      BufferedReader bf = new BufferedReader(new InputStreamReader(p.getInputStream()));
+      String s;
+      while ( (s=bf.readLine())!= null) {
+        println(s);
+      }
+      bf.close();
+    } catch (Exception ex) {
+      throw new RuntimeException("Impossible de lire les résultats de la commande");
+    }
+  }
+
+  /**
+   * @see Facile#exec(String[])
+   */
+  public void exec(String []args) {
+    Process p = null;
+    try {
+      p = Runtime.getRuntime().exec(args);
+    } catch(Exception ex) {
+      throw new RuntimeException("Impossible de lancer "+args[0]);
+    }
+    printExternalProcessOutputs(p);
+    try {
+      p.waitFor();
+    } catch (Exception ex) {}
+  }
+
+  /**
+   * @see Facile#exec(String)
+   */
+  public void exec(String command) {
+    Process p = null;
+    try {
+      p = Runtime.getRuntime().exec(command);
+    } catch(Exception ex) {
+      throw new RuntimeException("Impossible de lancer "+command);
+    }
+    printExternalProcessOutputs(p);
+    try {
+      p.waitFor();
+    } catch (Exception ex) {}
+  }
+
+  private Fichier bf;
+  private String rs;
+  /**
+   * @see Facile#ouvrirFichierEnLecture(String)
+   */
+  public int ouvrirFichierEnLecture(String nom) {
+    if (bf!=null) throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
+    bf = Fichier.enLecture(nom);
+    return bf==null ? Facile.OPEN_ERROR : Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#ouvrirFichierEnLecture(String,String)
+   */
+  public int ouvrirFichierEnLecture(String nom,String codage) {
+    if (bf!=null) throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
+    Charset cs = charset(codage);
+    if (cs==null) return Facile.ARG_ERROR;
+    bf = Fichier.enLecture(nom,cs);
+    return bf==null ? Facile.OPEN_ERROR : Facile.NO_ERROR;
+  }
+  /**
+   * Cherche un codage par son nom.
+   * @return le codage, ou <code>null</code> s'il est inconnu.
+   */
+  private static Charset charset(String codage) {
+    try {
+      return Charset.forName(codage);
+    } catch(IllegalArgumentException ex) {
+      return null;
+    }
+  }
+  /**
+   * @see Facile#fermerFichierEnLecture()
+   */
+  public void fermerFichierEnLecture() {
+    if (bf==null) return;
+    bf.close();
+    bf = null;
+  }
+  /**
+   * @see Facile#lireUneLigneDuFichier()
+   */
+  public String lireUneLigneDuFichier() {
+    if (bf==null)
+      throw new RuntimeException("il faut d'abord ouvrir un fichier avant de tenter de lire...");
+    return bf.reader().readLine();
+  }
+  /**
+   * Les fichiers ouverts par descripteur, indexés par leur descripteur.
+   */
+  private Fichier fichiers[] = new Fichier[8];
+  /**
+   * Range un fichier dans la première case libre de la table.
+   * @return le descripteur du fichier, ou <code>-1</code> s'il n'a pu être
+   * ouvert (l'état vaut alors <CODE>Facile.OPEN_ERROR</CODE>).
+   */
+  private int descriptor(Fichier f) {
+    if (f==null) {
+      error = Facile.OPEN_ERROR;
+      return -1;
+    }
+    int d = 0;
+    while (d<fichiers.length && fichiers[d]!=null) d++;
+    if (d==fichiers.length) fichiers = Arrays.copyOf(fichiers,2*d);
+    fichiers[d] = f;
+    closeAtExit(f,true);
+    error = Facile.NO_ERROR;
+    return d;
+  }
+  private Fichier fichier(int d) {
+    if (d<0 || d>=fichiers.length || fichiers[d]==null)
+      throw new RuntimeException("le descripteur "+d+" ne correspond à aucun fichier ouvert");
+    return fichiers[d];
+  }
+  /**
+   * @see Facile#ouvrirDescripteurEnLecture(String)
+   */
+  public int ouvrirDescripteurEnLecture(String nom) {
+    return descriptor(Fichier.enLecture(nom));
+  }
+  /**
+   * @see Facile#ouvrirDescripteurEnEcriture(String)
+   */
+  public int ouvrirDescripteurEnEcriture(String nom) {
+    return descriptor(Fichier.enEcriture(nom));
+  }
+  /**
+   * @see Facile#ouvrirDescripteurEnLecture(String,String)
+   */
+  public int ouvrirDescripteurEnLecture(String nom,String codage) {
+    Charset cs = charset(codage);
+    if (cs==null) {
+      error = Facile.ARG_ERROR;
+      return -1;
+    }
+    return descriptor(Fichier.enLecture(nom,cs));
+  }
+  /**
+   * @see Facile#ouvrirDescripteurEnEcriture(String,String)
+   */
+  public int ouvrirDescripteurEnEcriture(String nom,String codage) {
+    Charset cs = charset(codage);
+    if (cs==null) {
+      error = Facile.ARG_ERROR;
+      return -1;
+    }
+    return descriptor(Fichier.enEcriture(nom,cs));
+  }
+  /**
+   * @see Facile#ouvrirDescripteurCompresseEnEcriture(String,String,int)
+   */
+  public int ouvrirDescripteurCompresseEnEcriture(String nom,String codage,int niveau) {
+    Charset cs = charset(codage);
+    if (cs==null || niveau<-1 || niveau>9) {
+      error = Facile.ARG_ERROR;
+      return -1;
+    }
+    return descriptor(Fichier.enEcritureCompressee(nom,cs,niveau));
+  }
+  /**
+   * @see Facile#fermerFichier(int)
+   */
+  public void fermerFichier(int d) {
+    Fichier f = fichier(d);
+    fichiers[d] = null;
+    closeAtExit(f,false);
+    error = f.close() ? Facile.NO_ERROR : Facile.WRITE_ERROR;
+  }
+  /**
+   * @see Facile#lireUneLigneDuFichier(int)
+   */
+  public String lireUneLigneDuFichier(int d) {
+    return fichier(d).reader().readLine();
+  }
+  /**
+   * @see Facile#lireUnEntierDuFichier(int)
+   */
+  public int lireUnEntierDuFichier(int d) {
+    return readInt(fichier(d).reader());
+  }
+  /**
+   * @see Facile#lireUnEntierLongDuFichier(int)
+   */
+  public long lireUnEntierLongDuFichier(int d) {
+    return readLong(fichier(d).reader());
+  }
+  /**
+   * @see Facile#lireUnReelDuFichier(int)
+   */
+  public double lireUnReelDuFichier(int d) {
+    return readDouble(fichier(d).reader());
+  }
+  /**
+   * @see Facile#lireUnMotDuFichier(int)
+   */
+  public String lireUnMotDuFichier(int d) {
+    return readString(fichier(d).reader());
+  }
+  /**
+   * @see Facile#ecrireUneLigneDansLeFichier(int,String)
+   */
+  public int ecrireUneLigneDansLeFichier(int d,String aEcrire) {
+    return error = fichier(d).writeLine(aEcrire) ? Facile.NO_ERROR : Facile.WRITE_ERROR;
+  }
+  /**
+   * @see Facile#indexerFichier(int,String)
+   */
+  public int indexerFichier(int d,String nomIndex) {
+    Fichier f = fichier(d);
+    try {
+      LineIndex index = f.index();
+      if (nomIndex!=null) index.load(new File(nomIndex));
+      index.update();
+      if (nomIndex!=null) index.save(new File(nomIndex));
+    } catch(IOException ex) {
+      return error = Facile.STREAM_ERROR;
+    }
+    return error = Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#nombreDeLignes(int)
+   */
+  public long nombreDeLignes(int d) {
+    Fichier f = fichier(d);
+    try {
+      LineIndex index = f.index();
+      index.update();
+      error = Facile.NO_ERROR;
+      return index.lines();
+    } catch(IOException ex) {
+      error = Facile.STREAM_ERROR;
+      return 0;
+    }
+  }
+  /**
+   * @see Facile#lireLigne(int,long)
+   */
+  public String lireLigne(int d,long n) {
+    Fichier f = fichier(d);
+    if (n<1) {
+      error = Facile.ARG_ERROR;
+      return null;
+    }
+    try {
+      LineIndex index = f.index();
+      // la dernière ligne a pu s'allonger, et d'autres s'ajouter
+      if (n>=index.lines()) index.update();
+      if (n>index.lines()) {
+        error = Facile.STREAM_ERROR;
+        return null;
+      }
+      error = Facile.NO_ERROR;
+      return index.line((int)(n-1));
+    } catch(IOException ex) {
+      error = Facile.STREAM_ERROR;
+      return null;
+    }
+  }
+  /**
+   * Taille à partir de laquelle un fichier de lexèmes est projeté en mémoire
+   * plutôt que lu par blocs.
+   */
+  private static final long MAP_THRESHOLD = 1 << 20;
+  private MyTokenizer lexemes;
+  /**
+   * Ouvre un fichier en lecture par un découpeur.
+   * @return le découpeur, ou <code>null</code> si le fichier n'a pu être
+   * ouvert.
+   */
+  private static MyTokenizer openTokenizer(String nom) {
+    try {
+      FileChannel fc = new FileInputStream(nom).getChannel();
+      long size = fc.size();
+      if (Fichier.isGzip(fc))
+        return new MyTokenizer(Fichier.gunzip(Channels.newInputStream(fc),StandardCharsets.UTF_8));
+      if (size>=MAP_THRESHOLD)
+        return new MyTokenizer(new ChannelReader(fc,0,size));
+      else
+        return new MyTokenizer(new ChannelReader(fc));
+    } catch(IOException ex) {
+      return null;
+    }
+  }
+  /**
+   * @see Facile#ouvrirFichierDeLexemes(String)
+   */
+  public int ouvrirFichierDeLexemes(String nom) {
+    if (lexemes!=null) throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
+    lexemes = openTokenizer(nom);
+    return lexemes==null ? Facile.OPEN_ERROR : Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#fermerFichierDeLexemes()
+   */
+  public void fermerFichierDeLexemes() {
+    if (lexemes==null) return;
+    try {
+      lexemes.close();
+    } catch(IOException ex) {}
+    lexemes = null;
+  }
+  private MyTokenizer lexemes() {
+    if (lexemes==null)
+      throw new RuntimeException("il faut d'abord ouvrir un fichier avant de tenter de lire...");
+    return lexemes;
+  }
+  /**
+   * @see Facile#lireUnEntierDuFichier()
+   */
+  public int lireUnEntierDuFichier() {
+    return readInt(lexemes());
+  }
+  /**
+   * @see Facile#lireUnEntierLongDuFichier()
+   */
+  public long lireUnEntierLongDuFichier() {
+    return readLong(lexemes());
+  }
+  /**
+   * @see Facile#lireUnReelDuFichier()
+   */
+  public double lireUnReelDuFichier() {
+    return readDouble(lexemes());
+  }
+  /**
+   * @see Facile#lireUnMotDuFichier()
+   */
+  public String lireUnMotDuFichier() {
+    return readString(lexemes());
+  }
+  private MyTokenizer records;
+  /**
+   * @see Facile#ouvrirFichierDEnregistrements(String,String)
+   */
+  public int ouvrirFichierDEnregistrements(String nom,String separateurs) {
+    if (records!=null) throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
+    if (separateurs==null || separateurs.length()==0) return Facile.ARG_ERROR;
+    records = openTokenizer(nom);
+    if (records==null) return Facile.OPEN_ERROR;
+    records.setDelimiters(separateurs);
+    return Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#fermerFichierDEnregistrements()
+   */
+  public void fermerFichierDEnregistrements() {
+    if (records==null) return;
+    try {
+      records.close();
+    } catch(IOException ex) {}
+    records = null;
+  }
+  private MyTokenizer records() {
+    if (records==null)
+      throw new RuntimeException("il faut d'abord ouvrir un fichier avant de tenter de lire...");
+    return records;
+  }
+  /**
+   * @see Facile#lireUnEnregistrementDuFichier()
+   */
+  public int lireUnEnregistrementDuFichier() {
+    int n = records().readRecord();
+    if (n==MyTokenizer.EOF) {
+      error = Facile.STREAM_ERROR;
+      return 0;
+    }
+    error = Facile.NO_ERROR;
+    return n;
+  }
+  /**
+   * Vérifie qu'un champ existe dans l'enregistrement courant.
+   */
+  private boolean hasField(int i) {
+    if (i>=0 && i<records().fieldCount()) return true;
+    error = Facile.ARG_ERROR;
+    return false;
+  }
+  /**
+   * @see Facile#champ(int)
+   */
+  public CharSequence champ(int i) {
+    if (!hasField(i)) return null;
+    error = Facile.NO_ERROR;
+    return records.field(i);
+  }
+  /**
+   * @see Facile#champEntier(int)
+   */
+  public int champEntier(int i) {
+    if (!hasField(i)) return 0;
+    int value = records.fieldAsInt(i);
+    error = records.hasFormatError() ? Facile.FORMAT_ERROR : Facile.NO_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#champEntierLong(int)
+   */
+  public long champEntierLong(int i) {
+    if (!hasField(i)) return 0;
+    long value = records.fieldAsLong(i);
+    error = records.hasFormatError() ? Facile.FORMAT_ERROR : Facile.NO_ERROR;
+    return value;
+  }
+  /**
+   * @see Facile#champReel(int)
+   */
+  public double champReel(int i) {
+    if (!hasField(i)) return 0;
+    double value = records.fieldAsDouble(i);
+    error = records.hasFormatError() ? Facile.FORMAT_ERROR : Facile.NO_ERROR;
+    return value;
+  }
+  /**
+   * Ouvre un fichier pour le parcourir en flux, par projection en mémoire :
+   * un fichier compressé ne peut l'être.
+   * @return le canal ouvert, ou <code>null</code> (l'état vaut alors
+   * <CODE>Facile.OPEN_ERROR</CODE>, ou <CODE>Facile.STREAM_ERROR</CODE>
+   * si le fichier est compressé).
+   */
+  private FileChannel openChannel(String nom) {
+    FileChannel fc;
+    try {
+      fc = new FileInputStream(nom).getChannel();
+    } catch(IOException ex) {
+      error = Facile.OPEN_ERROR;
+      return null;
+    }
+    try {
+      if (!Fichier.isGzip(fc)) {
+        error = Facile.NO_ERROR;
+        return fc;
+      }
+    } catch(IOException ex) {}
+    closer(fc).run();
+    error = Facile.STREAM_ERROR;
+    return null;
+  }
+  private static Runnable closer(final Closeable c) {
+    return new Runnable() {
+      public void run() {
+        try {
+          c.close();
+        } catch(IOException ex) {}
+      }
+    };
+  }
+  /**
+   * @see Facile#tokens(String)
+   */
+  public Stream<String> tokens(String nom) {
+    FileChannel fc = openChannel(nom);
+    if (fc==null) return null;
+    try {
+      return StreamSupport.stream(new TokenSpliterator.Words(fc,0,fc.size()),false).onClose(closer(fc));
+    } catch(IOException ex) {
+      closer(fc).run();
+      error = Facile.OPEN_ERROR;
+      return null;
+    }
+  }
+  /**
+   * @see Facile#ints(String)
+   */
+  public IntStream ints(String nom) {
+    FileChannel fc = openChannel(nom);
+    if (fc==null) return null;
+    try {
+      return StreamSupport.intStream(new TokenSpliterator.Ints(fc,0,fc.size()),false).onClose(closer(fc));
+    } catch(IOException ex) {
+      closer(fc).run();
+      error = Facile.OPEN_ERROR;
+      return null;
+    }
+  }
+  /**
+   * @see Facile#trierFichier(String,String,Comparator,long)
+   */
+  public int trierFichier(String entree,String sortie,Comparator<String> ordre,long memoire) {
+    return trierFichier(entree,sortie,ordre,memoire,false);
+  }
+  /**
+   * @see Facile#trierFichier(String,String,Comparator,long,boolean)
+   */
+  public int trierFichier(String entree,String sortie,Comparator<String> ordre,long memoire,boolean sansDoublons) {
+    if (ordre==null) ordre = Comparator.naturalOrder();
+    return error = new ExternalSort(ordre,sansDoublons,memoire).sort(entree,sortie);
+  }
+  /**
+   * @see Facile#trierFichierNumerique(String,String,long,boolean)
+   */
+  public int trierFichierNumerique(String entree,String sortie,long memoire,boolean sansDoublons) {
+    return error = new ExternalSort(null,sansDoublons,memoire).sort(entree,sortie);
+  }
+  /**
+   * @see Facile#forEachLine(String,Consumer,int)
+   */
+  public int forEachLine(String nom,Consumer<String> action,int parallelism) {
+    return forEachLine(nom,action,parallelism,true);
+  }
+  /**
+   * @see Facile#forEachLineUnordered(String,Consumer,int)
+   */
+  public int forEachLineUnordered(String nom,Consumer<String> action,int parallelism) {
+    return forEachLine(nom,action,parallelism,false);
+  }
+  /**
+   * Applique une action aux lignes d'un fichier, découpé en portions
+   * traitées par un groupe de <code>parallelism</code> threads.
+   */
+  private int forEachLine(String nom,final Consumer<String> action,int parallelism,final boolean ordered) {
+    if (action==null || parallelism<1) return error = Facile.ARG_ERROR;
+    FileChannel fc = openChannel(nom);
+    if (fc==null) return error;
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      final Stream<String> lines = StreamSupport.stream(new TokenSpliterator.Lines(fc,0,fc.size()),parallelism>1);
+      // les tâches du flux parallèle s'exécutent dans le groupe qui le parcourt
+      pool.submit(new Runnable() {
+          public void run() {
+            if (ordered) lines.forEachOrdered(action);
+            else lines.forEach(action);
+          }
+        }).get();
+    } catch(ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+      if (cause instanceof Error) throw (Error)cause;
+      throw new RuntimeException(cause);
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return error = Facile.STREAM_ERROR;
+    } catch(IOException ex) {
+      return error = Facile.STREAM_ERROR;
+    } finally {
+      pool.shutdown();
+      closer(fc).run();
+    }
+    return error = Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#compterLesMots(StringCounter)
+   */
+  public long compterLesMots(StringCounter c) {
+    prompt();
+    return countWords(theTokenizer,c);
+  }
+  /**
+   * @see Facile#compterLesMots(int,StringCounter)
+   */
+  public long compterLesMots(int d,StringCounter c) {
+    return countWords(fichier(d).reader(),c);
+  }
+  /**
+   * Compte les mots restants, sans créer de chaîne pour un mot déjà vu.
+   */
+  private long countWords(MyTokenizer t,StringCounter c) {
+    long n = 0;
+    while (t.nextToken()!=MyTokenizer.EOF) {
+      t.countToken(c);
+      n++;
+    }
+    error = Facile.NO_ERROR;
+    return n;
+  }
+  /**
+   * @see Facile#compterLesEntiers(IntCounter)
+   */
+  public long compterLesEntiers(IntCounter c) {
+    prompt();
+    return countInts(theTokenizer,c);
+  }
+  /**
+   * @see Facile#compterLesEntiers(int,IntCounter)
+   */
+  public long compterLesEntiers(int d,IntCounter c) {
+    return countInts(fichier(d).reader(),c);
+  }
+  /**
+   * Compte les entiers restants ; la lecture s'arrête au premier lexème
+   * qui n'est pas un entier.
+   */
+  private long countInts(MyTokenizer t,IntCounter c) {
+    long n = 0;
+    while (t.nextToken()!=MyTokenizer.EOF) {
+      int value = t.intValue();
+      if (t.hasFormatError()) {
+        error = Facile.FORMAT_ERROR;
+        return n;
+      }
+      c.add(value);
+      n++;
+    }
+    error = Facile.NO_ERROR;
+    return n;
+  }
+  /**
+   * Compte les mots d'un fichier : chacun des <code>parallelism</code>
+   * threads prend des portions du fichier tant qu'il en reste et remplit
+   * son propre compteur ; les compteurs sont ensuite regroupés.
+   */
+  public StringCounter compterLesMotsDuFichier(String nom,int parallelism) {
+    if (parallelism<1) {
+      error = Facile.ARG_ERROR;
+      return null;
+    }
+    FileChannel fc = openChannel(nom);
+    if (fc==null) return null;
+    ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+    try {
+      long size = fc.size();
+      final Queue<Spliterator<String>> parts = new ConcurrentLinkedQueue<Spliterator<String>>(
+        TokenSpliterator.split(new TokenSpliterator.Words(fc,0,size),Math.max(1,size/(8L*parallelism))));
+      List<Callable<StringCounter>> tasks = new ArrayList<Callable<StringCounter>>();
+      for (int i=0; i<parallelism; i++) {
+        tasks.add(new Callable<StringCounter>() {
+            public StringCounter call() {
+              StringCounter c = new StringCounter();
+              Spliterator<String> s;
+              while ((s = parts.poll())!=null) {
+                TokenSpliterator w = (TokenSpliterator)s;
+                MyTokenizer t;
+                while ((t = w.next())!=null) t.countToken(c);
+              }
+              return c;
+            }
+          });
+      }
+      StringCounter result = null;
+      for (Future<StringCounter> f : pool.invokeAll(tasks)) {
+        StringCounter c = f.get();
+        if (result==null || c.size()>result.size()) {
+          if (result!=null) c.merge(result);
+          result = c;
+        } else {
+          result.merge(c);
+        }
+      }
+      error = Facile.NO_ERROR;
+      return result;
+    } catch(ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+      if (cause instanceof Error) throw (Error)cause;
+      throw new RuntimeException(cause);
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      error = Facile.STREAM_ERROR;
+      return null;
+    } catch(IOException ex) {
+      error = Facile.STREAM_ERROR;
+      return null;
+    } finally {
+      pool.shutdown();
+      closer(fc).run();
+    }
+  }
+
+  /**
+   * Le fichier ouvert en écriture. Les lignes y sont accumulées dans un
+   * tampon, et une erreur d'écriture reste signalée jusqu'à la fermeture.
+   */
+  private Fichier pw;
+  /**
+   * @see Facile#ouvrirFichierEnEcriture(String)
+   */
+  public int ouvrirFichierEnEcriture(String nom) {
+    if (pw!=null)
+      throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
+    pw = Fichier.enEcriture(nom);
+    closeAtExit(pw,true);
+    return pw==null ? Facile.OPEN_ERROR : Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#ouvrirFichierEnEcriture(String,String)
+   */
+  public int ouvrirFichierEnEcriture(String nom,String codage) {
+    if (pw!=null)
+      throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
+    Charset cs = charset(codage);
+    if (cs==null) return Facile.ARG_ERROR;
+    pw = Fichier.enEcriture(nom,cs);
+    closeAtExit(pw,true);
+    return pw==null ? Facile.OPEN_ERROR : Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#ouvrirFichierCompresseEnEcriture(String,String,int)
+   */
+  public int ouvrirFichierCompresseEnEcriture(String nom,String codage,int niveau) {
+    if (pw!=null)
+      throw new RuntimeException("il faut fermer le fichier déjà ouvert avant d'en ouvrir un autre");
+    Charset cs = charset(codage);
+    if (cs==null || niveau<-1 || niveau>9) return Facile.ARG_ERROR;
+    pw = Fichier.enEcritureCompressee(nom,cs,niveau);
+    closeAtExit(pw,true);
+    return pw==null ? Facile.OPEN_ERROR : Facile.NO_ERROR;
+  }
+  /**
+   * @see Facile#fermerFichierEnEcriture()
+   */
+  public void fermerFichierEnEcriture() {
+    if (pw==null) return;
+    closeAtExit(pw,false);
+    error = pw.close() ? Facile.NO_ERROR : Facile.WRITE_ERROR;
+    pw = null;
+  }
+  /**
+   * @see Facile#ecrireUneLigneDansLeFichier(String)
+   */
+  public int ecrireUneLigneDansLeFichier(String aEcrire) {
+    if (pw==null)
+      throw new RuntimeException("il faut d'abord ouvrir un fichier avant de tenter d'y écrire...");
+    return error = pw.writeLine(aEcrire) ? Facile.NO_ERROR : Facile.WRITE_ERROR;
+  }
+  /**
+   * @see Facile#getTurtle()
+   */
+  public Turtle getTurtle() {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    return theDrawable.getTurtle();
+  }
+  /**
+   * @see Facile#setTurtleMode(boolean)
+   */
+  public void setTurtleMode(boolean b) {
+    if (theFrame==null)
+      throw new RuntimeException("il manque un appel à startDrawings()");
+    theDrawable.setTurtleMode(b);
+  }
+  private static class MyTurtle extends Turtle {
+    private Drawable d;
+    public MyTurtle(Point2D p,double angle,Drawable d) {
+      this(p.getX(),p.getY(),angle,d);
+    }
+    public MyTurtle(double x,double y,double angle,Drawable d) {
+      super(x,y,angle);
+      this.d = d;
+    }
+    public void rectangle(int size) {
+      if (d==null) return;
+      d.fillRect((int)getState().getX()-size/2,(int)getState().getY()-size/2,
+                 size,size);
+      d.repaint();
+    }
+    public MyTurtle(Drawable d) {
+      super();
+      this.d = d;
+    }
+    public void lineTo(double x,double y) {
+      if (d!=null) d.drawLine((int)(getState().getX()),
+                              (int)(getState().getY()),(int)x,(int)y);
+      jumpTo(x,y);
+    }
+    public void jumpTo(double x,double y) {
+      super.jumpTo(x,y);
+      if (d!=null) d.repaint();
+    }
+    public void jumpTo(double distance) {
+      super.jumpTo(distance);
+      if (d!=null) d.repaint();
+    }
+    public void lineTo(double distance) {
+      double newX = getState().getX()+distance*Math.cos(getState().getAngle());
+      double newY = getState().getY()+distance*Math.sin(getState().getAngle());
+      if (d!=null) d.drawLine((int)(getState().getX()),(int)(getState().getY()),
+                              (int)newX,(int)newY);
+      jumpTo(distance);
+    }
+    // public void invalidate() {
+    //   d = null;
+    // }
+  }
+}
@@ -0,0 +1,230 @@
+package fr.upd;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.zip.*;
+
+/**
+ * Un fichier ouvert par une session, soit en lecture soit en écriture.
+ * <P>
+ * En lecture, le fichier est découpé par un <code>MyTokenizer</code>, ce
+ * qui permet d'y lire indifféremment des lignes ou des lexèmes. En
+ * écriture, les lignes sont accumulées dans un <code>OutputBuffer</code>.
+ * <P>
+ * Un fichier compressé par gzip est reconnu à ses deux premiers octets et
+ * décompressé au fil de la lecture, par un thread de lecture anticipée :
+ * la décompression se recouvre avec le découpage. De même, un fichier
+ * ouvert en écriture compressée est compressé par un thread d'écriture.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+final class Fichier {
+  private static final int GZIP_BUFFER = 1 << 16;
+  /**
+   * Taille et nombre des blocs décompressés par anticipation.
+   */
+  private static final int PREFETCH_BLOCK = 1 << 16;
+  private static final int PREFETCH_BLOCKS = 4;
+  /**
+   * Nombre de blocs en attente de compression.
+   */
+  private static final int COMPRESS_QUEUE = 64;
+
+  private final String nom;
+  private final Charset charset;
+  private final boolean compressed;
+  private final MyTokenizer reader;
+  private final OutputBuffer writer;
+  /**
+   * L'index des lignes, construit à la demande sur son propre canal.
+   */
+  private FileChannel channel = null;
+  private LineIndex index = null;
+
+  private Fichier(String nom,Charset charset,boolean compressed,MyTokenizer reader,OutputBuffer writer) {
+    this.nom = nom;
+    this.charset = charset;
+    this.compressed = compressed;
+    this.reader = reader;
+    this.writer = writer;
+  }
+
+  /**
+   * Ouvre un fichier en lecture, décodé dans le codage par défaut.
+   * @return le fichier, ou <code>null</code> s'il n'a pu être ouvert.
+   */
+  static Fichier enLecture(String nom) {
+    return enLecture(nom,Charset.defaultCharset());
+  }
+
+  /**
+   * Ouvre un fichier en lecture, décodé dans le codage donné.
+   * @return le fichier, ou <code>null</code> s'il n'a pu être ouvert.
+   */
+  static Fichier enLecture(String nom,Charset charset) {
+    FileInputStream in;
+    try {
+      in = new FileInputStream(nom);
+    } catch(IOException ex) {
+      return null;
+    }
+    try {
+      if (!isGzip(in.getChannel()))
+        return new Fichier(nom,charset,false,new MyTokenizer(new ChannelReader(in.getChannel(),charset)),null);
+      return new Fichier(nom,charset,true,new MyTokenizer(gunzip(in,charset)),null);
+    } catch(IOException ex) {
+      try {
+        in.close();
+      } catch(IOException e) {}
+      return null;
+    }
+  }
+
+  /**
+   * Indique si le fichier commence par la signature de gzip ; le canal est
+   * ensuite replacé au début.
+   */
+  static boolean isGzip(FileChannel in) throws IOException {
+    ByteBuffer magic = ByteBuffer.allocate(2);
+    while (magic.hasRemaining() && in.read(magic)>=0);
+    in.position(0);
+    return magic.position()==2 && (magic.get(0)&0xff)==0x1f && (magic.get(1)&0xff)==0x8b;
+  }
+
+  /**
+   * Renvoie un flot décompressant et décodant un flot gzip, dans un thread
+   * de lecture anticipée.
+   */
+  static Reader gunzip(InputStream in,Charset charset) throws IOException {
+    ReadableByteChannel gz = Channels.newChannel(new GZIPInputStream(in,GZIP_BUFFER));
+    return new PrefetchReader(new ChannelReader(gz,charset),PREFETCH_BLOCK,PREFETCH_BLOCKS);
+  }
+
+  /**
+   * Ouvre (ou crée) un fichier en écriture, codé dans le codage par défaut.
+   * @return le fichier, ou <code>null</code> s'il n'a pu être ouvert.
+   */
+  static Fichier enEcriture(String nom) {
+    return enEcriture(nom,Charset.defaultCharset());
+  }
+
+  /**
+   * Ouvre (ou crée) un fichier en écriture, codé dans le codage donné.
+   * @return le fichier, ou <code>null</code> s'il n'a pu être ouvert.
+   */
+  static Fichier enEcriture(String nom,Charset charset) {
+    try {
+      Writer out = new OutputStreamWriter(new FileOutputStream(nom),charset);
+      return new Fichier(nom,charset,false,null,new OutputBuffer(out,OutputBuffer.BUFFER_SIZE));
+    } catch(IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Ouvre (ou crée) un fichier en écriture compressée par gzip.
+   * @param level le niveau de compression, de <code>0</code> à
+   * <code>9</code>, ou <code>-1</code> pour le niveau par défaut
+   * @return le fichier, ou <code>null</code> s'il n'a pu être ouvert.
+   */
+  static Fichier enEcritureCompressee(String nom,Charset charset,final int level) {
+    FileOutputStream file;
+    try {
+      file = new FileOutputStream(nom);
+    } catch(IOException ex) {
+      return null;
+    }
+    try {
+      final GZIPOutputStream gz = new GZIPOutputStream(file,GZIP_BUFFER) {
+          {
+            def.setLevel(level);
+          }
+        };
+      // la compression est faite par le thread d'écriture
+      OutputStream out = new FilterOutputStream(new AsyncOutputStream(gz,COMPRESS_QUEUE,true)) {
+          public void write(byte b[],int off,int len) throws IOException {
+            out.write(b,off,len);
+          }
+          public void close() throws IOException {
+            try {
+              out.close();
+            } finally {
+              gz.close();
+            }
+          }
+        };
+      Writer w = new OutputStreamWriter(out,charset);
+      return new Fichier(nom,charset,true,null,new OutputBuffer(w,OutputBuffer.BUFFER_SIZE));
+    } catch(IOException ex) {
+      try {
+        file.close();
+      } catch(IOException e) {}
+      return null;
+    }
+  }
+
+  /**
+   * Le découpeur du fichier ouvert en lecture.
+   */
+  MyTokenizer reader() {
+    if (reader==null)
+      throw new RuntimeException("le fichier n'est pas ouvert en lecture");
+    return reader;
+  }
+
+  /**
+   * L'index des lignes du fichier ouvert en lecture, vide tant qu'il n'a
+   * pas été mis à jour.
+   */
+  LineIndex index() throws IOException {
+    reader();
+    if (compressed) throw new IOException(nom+" est compressé");
+    if (index==null) {
+      channel = new FileInputStream(nom).getChannel();
+      index = new LineIndex(channel,charset);
+    }
+    return index;
+  }
+
+  /**
+   * Le tampon du fichier ouvert en écriture.
+   */
+  OutputBuffer writer() {
+    if (writer==null)
+      throw new RuntimeException("le fichier n'est pas ouvert en écriture");
+    return writer;
+  }
+
+  /**
+   * Écrit une ligne.
+   * @return <code>false</code> si une écriture a échoué depuis l'ouverture.
+   */
+  boolean writeLine(String s) {
+    return !writer().append(s).newLine().checkError();
+  }
+
+  /**
+   * Écrit les lignes en attente d'un fichier ouvert en écriture.
+   */
+  void flush() {
+    if (writer!=null) writer.flush();
+  }
+
+  /**
+   * Ferme le fichier.
+   * @return <code>false</code> si une écriture a échoué.
+   */
+  boolean close() {
+    if (writer!=null) {
+      writer.close();
+      return !writer.checkError();
+    }
+    try {
+      reader.close();
+      if (channel!=null) channel.close();
+    } catch(IOException ex) {}
+    return true;
+  }
+}
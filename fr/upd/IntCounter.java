@@ -0,0 +1,162 @@
+package fr.upd;
+import java.util.function.*;
+
+/**
+ * Un compteur associant un entier long à des entiers, par exemple pour
+ * compter les occurrences des valeurs lues ou en faire la somme par
+ * groupe.
+ * <P>
+ * Les clés et les comptes sont rangés dans des tableaux d'entiers (table
+ * à adressage ouvert) : aucun objet n'est créé pour compter. Plusieurs
+ * compteurs remplis en parallèle se regroupent par <CODE>merge</CODE>.
+ * <P>
+ * Un compteur n'est pas partageable entre plusieurs threads.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ * @since 0.4
+ */
+public final class IntCounter {
+  private int keys[];
+  private long counts[];
+  private boolean used[];
+  private int size = 0;
+
+  public IntCounter() {
+    this(16);
+  }
+
+  /**
+   * Crée un compteur prévu pour le nombre de clés donné.
+   */
+  public IntCounter(int expected) {
+    int n = 16;
+    while (n<2*expected && n<(1<<30)) n <<= 1;
+    keys = new int[n];
+    counts = new long[n];
+    used = new boolean[n];
+  }
+
+  private static int mix(int h) {
+    h *= 0x9E3779B9;
+    return h^(h>>>16);
+  }
+
+  /**
+   * Cherche la case de la clé : celle qui la contient, ou la case vide où
+   * l'insérer.
+   */
+  private int slot(int key) {
+    int mask = keys.length-1;
+    int i = mix(key)&mask;
+    while (used[i] && keys[i]!=key) i = (i+1)&mask;
+    return i;
+  }
+
+  /**
+   * Ajoute 1 au compte d'une clé.
+   */
+  public void add(int key) {
+    add(key,1);
+  }
+
+  /**
+   * Ajoute <code>n</code> au compte d'une clé.
+   */
+  public void add(int key,long n) {
+    int i = slot(key);
+    if (used[i]) {
+      counts[i] += n;
+      return;
+    }
+    used[i] = true;
+    keys[i] = key;
+    counts[i] = n;
+    if (++size>keys.length/2) grow();
+  }
+
+  /**
+   * Double la taille de la table.
+   */
+  private void grow() {
+    int ok[] = keys;
+    long oc[] = counts;
+    boolean ou[] = used;
+    int n = 2*ok.length;
+    keys = new int[n];
+    counts = new long[n];
+    used = new boolean[n];
+    for (int j=0; j<ok.length; j++) {
+      if (!ou[j]) continue;
+      int i = slot(ok[j]);
+      used[i] = true;
+      keys[i] = ok[j];
+      counts[i] = oc[j];
+    }
+  }
+
+  /**
+   * Renvoie le compte d'une clé (<code>0</code> si elle est absente).
+   */
+  public long get(int key) {
+    int i = slot(key);
+    return used[i] ? counts[i] : 0;
+  }
+
+  /**
+   * Indique si une clé est présente.
+   */
+  public boolean contains(int key) {
+    return used[slot(key)];
+  }
+
+  /**
+   * Renvoie le nombre de clés distinctes.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Ajoute à ce compteur les comptes d'un autre.
+   */
+  public void merge(IntCounter other) {
+    for (int j=0; j<other.keys.length; j++)
+      if (other.used[j]) add(other.keys[j],other.counts[j]);
+  }
+
+  /**
+   * Applique une action à chaque clé et à son compte, dans un ordre
+   * quelconque.
+   */
+  public void forEach(IntLongConsumer action) {
+    for (int j=0; j<keys.length; j++)
+      if (used[j]) action.accept(keys[j],counts[j]);
+  }
+
+  /**
+   * Une action sur une clé et son compte.
+   */
+  public interface IntLongConsumer {
+    void accept(int key,long count);
+  }
+
+  /**
+   * Renvoie les <code>k</code> clés de plus grands comptes, par comptes
+   * décroissants (à égalité, par clés croissantes).
+   */
+  public int[] topK(int k) {
+    int top[] = new TopK(Math.min(k,size)) {
+        boolean before(int i,int j) {
+          return counts[i]>counts[j] || (counts[i]==counts[j] && keys[i]<keys[j]);
+        }
+      }.select(keys.length,new IntPredicate() {
+          public boolean test(int i) {
+            return used[i];
+          }
+        });
+    int r[] = new int[top.length];
+    for (int j=0; j<top.length; j++) r[j] = keys[top[j]];
+    return r;
+  }
+}
@@ -0,0 +1,191 @@
+package fr.upd;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.zip.CRC32;
+
+/**
+ * Index des débuts de ligne d'un fichier, pour lire directement une ligne
+ * quelconque.
+ * <P>
+ * L'index est construit en parcourant le fichier projeté en mémoire, puis
+ * complété lorsque le fichier s'allonge par la fin. Il peut être
+ * enregistré dans un fichier et relu, pour ne parcourir ensuite que ce qui
+ * a été ajouté ; l'index enregistré n'est repris que si le début et la fin
+ * de la partie indexée du fichier n'ont pas changé. Les fins de ligne reconnues sont celles de
+ * <code>MyTokenizer.readLine()</code> ; le codage des caractères doit être
+ * compatible avec l'ASCII.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+final class LineIndex {
+  private static final long MAP_SIZE = 1L << 27;
+  private static final int MAGIC = 0x46494432; // "FID2"
+  /**
+   * Taille des blocs, au début et à la fin de la partie indexée, dont la
+   * somme de contrôle est enregistrée avec l'index.
+   */
+  private static final int CHECK_BLOCK = 1 << 12;
+
+  private final FileChannel file;
+  private final Charset charset;
+  /**
+   * Les débuts des <code>count</code> premières lignes.
+   */
+  private long starts[] = new long[1024];
+  private int count = 0;
+  /**
+   * L'état du parcours : nombre d'octets indexés, début de la ligne en
+   * cours, et <code>\r</code> en dernier octet indexé.
+   */
+  private long end = 0;
+  private long next = 0;
+  private boolean cr = false;
+
+  LineIndex(FileChannel file,Charset charset) {
+    this.file = file;
+    this.charset = charset;
+  }
+
+  /**
+   * Indexe la partie du fichier ajoutée depuis le dernier parcours.
+   */
+  void update() throws IOException {
+    long size = file.size();
+    if (size<end) {
+      // le fichier a été tronqué : tout est à refaire
+      count = 0;
+      end = next = 0;
+      cr = false;
+    }
+    while (end<size) {
+      long n = Math.min(size-end,MAP_SIZE);
+      MappedByteBuffer bb = file.map(FileChannel.MapMode.READ_ONLY,end,n);
+      for (int i=0; i<n; i++) {
+        byte b = bb.get(i);
+        if (b!='\n' && b!='\r') {
+          cr = false;
+          continue;
+        }
+        long p = end+i;
+        if (cr && b=='\n') {
+          // fin de ligne \r\n
+          next = p+1;
+          cr = false;
+          continue;
+        }
+        mark();
+        next = p+1;
+        cr = b=='\r';
+      }
+      end += n;
+    }
+    if (next<end) mark();
+  }
+
+  /**
+   * Enregistre le début de la ligne en cours, s'il ne l'est pas déjà.
+   */
+  private void mark() {
+    if (count>0 && starts[count-1]==next) return;
+    if (count==starts.length) {
+      long ns[] = new long[2*count];
+      System.arraycopy(starts,0,ns,0,count);
+      starts = ns;
+    }
+    starts[count++] = next;
+  }
+
+  /**
+   * Le nombre de lignes indexées.
+   */
+  long lines() {
+    return count;
+  }
+
+  /**
+   * Lit la ligne numéro <code>n</code> (à partir de 0), sans sa fin de
+   * ligne.
+   */
+  String line(int n) throws IOException {
+    long from = starts[n];
+    long to = n+1<count ? starts[n+1] : end;
+    ByteBuffer bb = ByteBuffer.allocate((int)(to-from));
+    while (bb.hasRemaining()) {
+      if (file.read(bb,from+bb.position())<0) break;
+    }
+    int len = bb.position();
+    byte a[] = bb.array();
+    if (len>0 && a[len-1]=='\n') len--;
+    if (len>0 && a[len-1]=='\r') len--;
+    return new String(a,0,len,charset);
+  }
+
+  /**
+   * La somme de contrôle du premier et du dernier bloc des <code>e</code>
+   * premiers octets du fichier.
+   */
+  private long checksum(long e) throws IOException {
+    CRC32 crc = new CRC32();
+    int n = (int)Math.min(e,CHECK_BLOCK);
+    checksum(crc,0,n);
+    checksum(crc,e-n,n);
+    return crc.getValue();
+  }
+
+  private void checksum(CRC32 crc,long from,int n) throws IOException {
+    ByteBuffer bb = ByteBuffer.allocate(n);
+    while (bb.hasRemaining()) {
+      if (file.read(bb,from+bb.position())<0) throw new EOFException();
+    }
+    crc.update(bb.array(),0,n);
+  }
+
+  /**
+   * Relit un index enregistré par <code>save</code>. Un fichier d'index
+   * absent, illisible, incohérent, ou qui ne correspond plus au fichier
+   * indexé (plus court, ou modifié au début ou à la fin de la partie
+   * indexée), est ignoré.
+   */
+  void load(File f) {
+    if (!f.exists()) return;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+      if (in.readInt()!=MAGIC) return;
+      long e = in.readLong();
+      long sum = in.readLong();
+      long nx = in.readLong();
+      boolean c = in.readBoolean();
+      int k = in.readInt();
+      if (e<0 || e>file.size() || nx<0 || nx>e || k<0 || k>e+1) return;
+      if (checksum(e)!=sum) return;
+      long s[] = new long[Math.max(k,1024)];
+      for (int i=0; i<k; i++) {
+        s[i] = in.readLong();
+        if (s[i]<0 || s[i]>e || (i>0 && s[i]<=s[i-1])) return;
+      }
+      end = e;
+      next = nx;
+      cr = c;
+      count = k;
+      starts = s;
+    } catch(IOException ex) {
+    }
+  }
+
+  /**
+   * Enregistre l'index dans un fichier.
+   */
+  void save(File f) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+      out.writeInt(MAGIC);
+      out.writeLong(end);
+      out.writeLong(checksum(end));
+      out.writeLong(next);
+      out.writeBoolean(cr);
+      out.writeInt(count);
+      for (int i=0; i<count; i++) out.writeLong(starts[i]);
+    }
+  }
+}
@@ -0,0 +1,525 @@
+package fr.upd;
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Un moteur map/reduce local, appliqué aux lignes d'un fichier.
+ * <P>
+ * Le fichier est découpé en portions de lignes entières, lues par
+ * projection en mémoire. Chacune des <code>parallelism</code> tâches
+ * <em>map</em> prend des portions tant qu'il en reste et applique la
+ * fonction <code>map</code> à chaque ligne. Les couples (clé, valeur)
+ * produits sont répartis en partitions selon le code de hachage de la
+ * clé, et, si le combineur est actif, les valeurs d'une même clé y sont
+ * aussitôt réduites. Lorsqu'une tâche conserve plus de couples que le seuil
+ * fixé, ses partitions sont triées par clé et écrites dans des fichiers
+ * temporaires. Chaque tâche <em>reduce</em> fusionne ensuite les morceaux
+ * triés d'une partition, réduit les valeurs de chaque clé et transmet le
+ * résultat.
+ * <P>
+ * La réduction est une opération binaire, qui doit être associative (et
+ * commutative, l'ordre des valeurs n'étant pas garanti). L'ordre des clés
+ * doit être compatible avec <code>equals</code>.
+ * <PRE>
+ *	MapReduce&lt;String,Long&gt; wc = new MapReduce&lt;String,Long&gt;(
+ *	    (line,out) -&gt; { for (String w : line.split(" ")) out.accept(w,1L); },
+ *	    Long::sum,Comparator.naturalOrder(),
+ *	    MapReduce.STRING,MapReduce.LONG);
+ *	MapReduce.Counters c = wc.run("texte.txt",(w,n) -&gt; Facile.println(w+" "+n));
+ * </PRE>
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ * @since 0.4
+ */
+public final class MapReduce<K,V> {
+  /**
+   * La fonction appliquée à chaque ligne, qui transmet des couples
+   * (clé, valeur) à <code>out</code>.
+   */
+  public interface Mapper<K,V> {
+    void map(String line,BiConsumer<? super K,? super V> out);
+  }
+
+  /**
+   * L'écriture et la lecture des clés ou des valeurs dans les fichiers
+   * temporaires.
+   */
+  public interface Codec<T> {
+    void write(DataOutput out,T t) throws IOException;
+    T read(DataInput in) throws IOException;
+  }
+
+  public static final Codec<String> STRING = new Codec<String>() {
+      public void write(DataOutput out,String s) throws IOException {
+        byte b[] = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+      }
+      public String read(DataInput in) throws IOException {
+        byte b[] = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b,StandardCharsets.UTF_8);
+      }
+    };
+  public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+      public void write(DataOutput out,Integer i) throws IOException {
+        out.writeInt(i);
+      }
+      public Integer read(DataInput in) throws IOException {
+        return in.readInt();
+      }
+    };
+  public static final Codec<Long> LONG = new Codec<Long>() {
+      public void write(DataOutput out,Long l) throws IOException {
+        out.writeLong(l);
+      }
+      public Long read(DataInput in) throws IOException {
+        return in.readLong();
+      }
+    };
+  public static final Codec<Double> DOUBLE = new Codec<Double>() {
+      public void write(DataOutput out,Double d) throws IOException {
+        out.writeDouble(d);
+      }
+      public Double read(DataInput in) throws IOException {
+        return in.readDouble();
+      }
+    };
+
+  /**
+   * Les compteurs d'une exécution.
+   */
+  public static final class Counters {
+    private final LongAdder inputRecords = new LongAdder();
+    private final LongAdder mapOutputRecords = new LongAdder();
+    private final LongAdder shuffledRecords = new LongAdder();
+    private final LongAdder spills = new LongAdder();
+    private final LongAdder spilledRecords = new LongAdder();
+    private long inputBytes;
+    private long outputRecords;
+    private long mapNanos;
+    private long reduceNanos;
+
+    /** Le nombre de lignes lues. */
+    public long getInputRecords() {
+      return inputRecords.sum();
+    }
+    /** La taille du fichier lu, en octets. */
+    public long getInputBytes() {
+      return inputBytes;
+    }
+    /** Le nombre de couples produits par <code>map</code>. */
+    public long getMapOutputRecords() {
+      return mapOutputRecords.sum();
+    }
+    /** Le nombre de couples transmis aux tâches reduce, après combinaison. */
+    public long getShuffledRecords() {
+      return shuffledRecords.sum();
+    }
+    /** Le nombre de fichiers temporaires écrits. */
+    public long getSpills() {
+      return spills.sum();
+    }
+    /** Le nombre de couples écrits dans les fichiers temporaires. */
+    public long getSpilledRecords() {
+      return spilledRecords.sum();
+    }
+    /** Le nombre de clés distinctes transmises en résultat. */
+    public long getOutputRecords() {
+      return outputRecords;
+    }
+    /** La durée de la phase map, en millisecondes. */
+    public long getMapMillis() {
+      return mapNanos/1000000;
+    }
+    /** La durée de la phase reduce, en millisecondes. */
+    public long getReduceMillis() {
+      return reduceNanos/1000000;
+    }
+    public String toString() {
+      return "lignes lues="+getInputRecords()+" octets lus="+getInputBytes()
+        +" couples produits="+getMapOutputRecords()+" couples transmis="+getShuffledRecords()
+        +" débordements="+getSpills()+" couples débordés="+getSpilledRecords()
+        +" résultats="+getOutputRecords()
+        +" map="+getMapMillis()+"ms reduce="+getReduceMillis()+"ms";
+    }
+  }
+
+  /**
+   * Un couple (clé, valeur).
+   */
+  private static final class Pair<K,V> {
+    final K key;
+    V value;
+    Pair(K key,V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private final Mapper<K,V> mapper;
+  private final BinaryOperator<V> reducer;
+  private final Comparator<? super K> order;
+  private final Codec<K> keys;
+  private final Codec<V> values;
+  private final Comparator<Pair<K,V>> pairOrder;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private boolean combine = true;
+  private int spillThreshold = 1 << 20;
+  private File tempDirectory = null;
+
+  /**
+   * Prépare un calcul.
+   * @param mapper la fonction appliquée à chaque ligne
+   * @param reducer la réduction de deux valeurs d'une même clé
+   * @param order l'ordre des clés
+   * @param keys le codage des clés dans les fichiers temporaires
+   * @param values le codage des valeurs dans les fichiers temporaires
+   */
+  public MapReduce(Mapper<K,V> mapper,BinaryOperator<V> reducer,Comparator<? super K> order,
+                   Codec<K> keys,Codec<V> values) {
+    if (mapper==null || reducer==null || order==null || keys==null || values==null)
+      throw new NullPointerException();
+    this.mapper = mapper;
+    this.reducer = reducer;
+    this.order = order;
+    this.keys = keys;
+    this.values = values;
+    pairOrder = new Comparator<Pair<K,V>>() {
+        public int compare(Pair<K,V> a,Pair<K,V> b) {
+          return MapReduce.this.order.compare(a.key,b.key);
+        }
+      };
+  }
+
+  /**
+   * Fixe le nombre de tâches map et reduce simultanées (par défaut, le
+   * nombre de processeurs).
+   */
+  public MapReduce<K,V> setParallelism(int parallelism) {
+    if (parallelism<1) throw new IllegalArgumentException("parallelism: "+parallelism);
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Active ou non la réduction des valeurs dès la phase map (activée par
+   * défaut).
+   */
+  public MapReduce<K,V> setCombiner(boolean combine) {
+    this.combine = combine;
+    return this;
+  }
+
+  /**
+   * Fixe le nombre de couples qu'une tâche map conserve en mémoire avant
+   * de les écrire dans des fichiers temporaires.
+   */
+  public MapReduce<K,V> setSpillThreshold(int records) {
+    if (records<1) throw new IllegalArgumentException("records: "+records);
+    spillThreshold = records;
+    return this;
+  }
+
+  /**
+   * Fixe le répertoire des fichiers temporaires (par défaut, celui du
+   * système).
+   */
+  public MapReduce<K,V> setTempDirectory(File directory) {
+    tempDirectory = directory;
+    return this;
+  }
+
+  /**
+   * Les morceaux triés d'une partition : en mémoire ou dans des fichiers.
+   */
+  private static final class Partition<K,V> {
+    final List<List<Pair<K,V>>> memory = new ArrayList<List<Pair<K,V>>>();
+    final List<File> files = new ArrayList<File>();
+  }
+
+  /**
+   * Exécute le calcul sur les lignes d'un fichier. La fonction
+   * <code>output</code> reçoit chaque clé et sa valeur réduite ; elle n'est
+   * jamais appelée simultanément par plusieurs threads, et les clés d'une
+   * même partition lui parviennent dans l'ordre.
+   * @param nom le nom du fichier à lire
+   * @param output la fonction recevant les résultats
+   * @return les compteurs de l'exécution
+   * @throws IOException en cas d'erreur de lecture ou d'écriture des
+   * fichiers temporaires, ou si le fichier est compressé
+   */
+  public Counters run(String nom,BiConsumer<? super K,? super V> output) throws IOException {
+    final Counters counters = new Counters();
+    final List<Partition<K,V>> partitions = new ArrayList<Partition<K,V>>();
+    for (int i=0; i<parallelism; i++) partitions.add(new Partition<K,V>());
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try (FileChannel fc = new FileInputStream(nom).getChannel()) {
+      if (Fichier.isGzip(fc)) throw new IOException(nom+" est compressé");
+      long t0 = System.nanoTime();
+      counters.inputBytes = fc.size();
+      final Queue<Spliterator<String>> splits = split(fc);
+      List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+      for (int i=0; i<parallelism; i++) {
+        tasks.add(new Callable<Void>() {
+            public Void call() throws IOException {
+              new MapTask(partitions,counters).run(splits);
+              return null;
+            }
+          });
+      }
+      invokeAll(pool,tasks);
+      long t1 = System.nanoTime();
+      counters.mapNanos = t1-t0;
+      final AtomicLong outputs = new AtomicLong();
+      final BiConsumer<? super K,? super V> out = output;
+      tasks.clear();
+      for (final Partition<K,V> p : partitions) {
+        tasks.add(new Callable<Void>() {
+            public Void call() throws IOException {
+              outputs.addAndGet(reduce(p,out));
+              return null;
+            }
+          });
+      }
+      invokeAll(pool,tasks);
+      counters.outputRecords = outputs.get();
+      counters.reduceNanos = System.nanoTime()-t1;
+    } finally {
+      pool.shutdown();
+      for (Partition<K,V> p : partitions)
+        for (File f : p.files) f.delete();
+    }
+    return counters;
+  }
+
+  /**
+   * Découpe le fichier en portions de lignes, assez nombreuses pour
+   * équilibrer les tâches.
+   */
+  private Queue<Spliterator<String>> split(FileChannel fc) throws IOException {
+    long size = fc.size();
+    long target = Math.max(1,size/(8L*parallelism));
+    return new ConcurrentLinkedQueue<Spliterator<String>>(
+      TokenSpliterator.split(new TokenSpliterator.Lines(fc,0,size),target));
+  }
+
+  private static void invokeAll(ForkJoinPool pool,List<Callable<Void>> tasks) throws IOException {
+    for (Future<Void> f : pool.invokeAll(tasks)) {
+      try {
+        f.get();
+      } catch(InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      } catch(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof IOException) throw (IOException)cause;
+        if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+        if (cause instanceof Error) throw (Error)cause;
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
+  /**
+   * Une tâche map, avec ses couples en attente par partition.
+   */
+  private final class MapTask implements BiConsumer<K,V> {
+    private final List<Partition<K,V>> partitions;
+    private final Counters counters;
+    private final List<Map<K,V>> combined;
+    private final List<List<Pair<K,V>>> pending;
+    private int held = 0;
+
+    MapTask(List<Partition<K,V>> partitions,Counters counters) {
+      this.partitions = partitions;
+      this.counters = counters;
+      int n = partitions.size();
+      combined = new ArrayList<Map<K,V>>(n);
+      pending = new ArrayList<List<Pair<K,V>>>(n);
+      for (int i=0; i<n; i++) {
+        combined.add(combine ? new HashMap<K,V>() : null);
+        pending.add(combine ? null : new ArrayList<Pair<K,V>>());
+      }
+    }
+
+    void run(Queue<Spliterator<String>> splits) throws IOException {
+      Spliterator<String> s;
+      final Mapper<K,V> m = mapper;
+      final BiConsumer<K,V> self = this;
+      Consumer<String> line = new Consumer<String>() {
+          public void accept(String line) {
+            counters.inputRecords.increment();
+            m.map(line,self);
+          }
+        };
+      try {
+        while ((s = splits.poll())!=null) {
+          s.forEachRemaining(line);
+        }
+      } catch(UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+      flush(false);
+    }
+
+    public void accept(K key,V value) {
+      counters.mapOutputRecords.increment();
+      int p = (key.hashCode() & Integer.MAX_VALUE) % partitions.size();
+      if (combine) {
+        Map<K,V> map = combined.get(p);
+        int n = map.size();
+        map.merge(key,value,reducer);
+        if (map.size()==n) return;
+      } else {
+        pending.get(p).add(new Pair<K,V>(key,value));
+      }
+      if (++held>=spillThreshold) {
+        try {
+          flush(true);
+        } catch(IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      }
+    }
+
+    /**
+     * Trie les couples en attente de chaque partition et les transmet à
+     * la partition, dans un fichier temporaire ou en mémoire.
+     */
+    private void flush(boolean spill) throws IOException {
+      for (int i=0; i<partitions.size(); i++) {
+        List<Pair<K,V>> run;
+        if (combine) {
+          Map<K,V> map = combined.get(i);
+          run = new ArrayList<Pair<K,V>>(map.size());
+          for (Map.Entry<K,V> e : map.entrySet())
+            run.add(new Pair<K,V>(e.getKey(),e.getValue()));
+          map.clear();
+        } else {
+          run = pending.set(i,new ArrayList<Pair<K,V>>());
+        }
+        if (run.isEmpty()) continue;
+        Collections.sort(run,pairOrder);
+        counters.shuffledRecords.add(run.size());
+        Partition<K,V> p = partitions.get(i);
+        if (spill) {
+          File f = write(run);
+          counters.spills.increment();
+          counters.spilledRecords.add(run.size());
+          synchronized (p) {
+            p.files.add(f);
+          }
+        } else {
+          synchronized (p) {
+            p.memory.add(run);
+          }
+        }
+      }
+      held = 0;
+    }
+  }
+
+  /**
+   * Écrit des couples triés dans un fichier temporaire, supprimé à la fin
+   * de l'exécution (ou aussitôt si l'écriture échoue).
+   */
+  private File write(List<Pair<K,V>> run) throws IOException {
+    File f = File.createTempFile("facile-mr",".run",tempDirectory);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f),1<<16))) {
+      out.writeInt(run.size());
+      for (Pair<K,V> p : run) {
+        keys.write(out,p.key);
+        values.write(out,p.value);
+      }
+    } catch(IOException ex) {
+      f.delete();
+      throw ex;
+    }
+    return f;
+  }
+
+  /**
+   * Un curseur sur un morceau trié, en mémoire ou dans un fichier.
+   */
+  private final class Cursor {
+    private Iterator<Pair<K,V>> it = null;
+    private DataInputStream in = null;
+    private int left;
+    Pair<K,V> head;
+
+    Cursor(List<Pair<K,V>> run) {
+      it = run.iterator();
+    }
+    Cursor(File f) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(f),1<<16));
+      left = in.readInt();
+    }
+    /**
+     * Avance au couple suivant.
+     * @return <code>false</code> à la fin du morceau.
+     */
+    boolean advance() throws IOException {
+      if (it!=null) {
+        head = it.hasNext() ? it.next() : null;
+      } else if (left>0) {
+        left--;
+        K k = keys.read(in);
+        head = new Pair<K,V>(k,values.read(in));
+      } else {
+        head = null;
+        in.close();
+      }
+      return head!=null;
+    }
+    void close() throws IOException {
+      if (in!=null) in.close();
+    }
+  }
+
+  /**
+   * Fusionne les morceaux d'une partition et transmet chaque clé avec sa
+   * valeur réduite.
+   * @return le nombre de clés transmises.
+   */
+  private long reduce(Partition<K,V> p,BiConsumer<? super K,? super V> output) throws IOException {
+    PriorityQueue<Cursor> heap = new PriorityQueue<Cursor>(Math.max(1,p.memory.size()+p.files.size()),
+      new Comparator<Cursor>() {
+        public int compare(Cursor a,Cursor b) {
+          return order.compare(a.head.key,b.head.key);
+        }
+      });
+    List<Cursor> cursors = new ArrayList<Cursor>();
+    long n = 0;
+    try {
+      for (List<Pair<K,V>> run : p.memory) cursors.add(new Cursor(run));
+      for (File f : p.files) cursors.add(new Cursor(f));
+      for (Cursor c : cursors)
+        if (c.advance()) heap.add(c);
+      while (!heap.isEmpty()) {
+        Cursor c = heap.poll();
+        K key = c.head.key;
+        V value = c.head.value;
+        if (c.advance()) heap.add(c);
+        while (!heap.isEmpty() && order.compare(heap.peek().head.key,key)==0) {
+          c = heap.poll();
+          value = reducer.apply(value,c.head.value);
+          if (c.advance()) heap.add(c);
+        }
+        synchronized (this) {
+          output.accept(key,value);
+        }
+        n++;
+      }
+    } finally {
+      for (Cursor c : cursors) c.close();
+    }
+    return n;
+  }
+}
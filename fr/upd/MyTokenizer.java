@@ -16,22 +16,57 @@ public class MyTokenizer {
 
     private Reader reader = null;
 
+    /** The input window, refilled by blocks from the reader */
+    private char cb[] = new char[WINDOW_SIZE];
+
+    /** Index of the next char to be read in the window */
+    private int pos = 0;
+
+    /** Number of valid chars in the window */
+    private int lim = 0;
+
+    private static final int WINDOW_SIZE = 1 << 16;
+
     private char buf[] = new char[80];
 
     private int lastChar = NEED_CHAR;
 
     private static final int NEED_CHAR = Integer.MAX_VALUE;
-    private static final int ALPHA = 1;
-    private static final int BLANK = 2;
+    /** A \r ending a line has been counted, a following \n must be skipped */
+    private static final int SKIP_LF = Integer.MAX_VALUE - 1;
 
     /** The line number of the last token read */
     private int ligne = 1;
 
     public static final int EOF = -1;
     public static final int TOKEN = 0;
+    /** A token reaching the end of the window, which may go on */
+    private static final int CROSSING = -2;
 
     private String theToken;
 
+    /** The chars of the current token: a slice of the window or of buf */
+    private char tok[] = null;
+    private int tokOff = 0;
+    private int tokLen = 0;
+
+    private NumberParser parser = new NumberParser();
+
+    /** The record delimiters, indexed by char */
+    private boolean delims[];
+
+    /** The bounds of the fields of the last record, as pairs in tok */
+    private int bounds[] = new int[32];
+    private int nfields = 0;
+    private Field views[] = new Field[16];
+    private int fieldOff;
+    private int fieldLen;
+
+    /** The intern cache of token strings (null when disabled) */
+    private String cache[] = null;
+    private long hits = 0;
+    private long misses = 0;
+
     /**
      * Create a tokenizer that parses the given character stream.
      *
@@ -42,71 +77,638 @@ public class MyTokenizer {
             throw new NullPointerException();
         }
 	this.reader = reader;
+	setDelimiters(",");
+    }
+
+    /**
+     * Refill the window with the next block of the stream.
+     *
+     * @return <code>false</code> if the end of the stream is reached.
+     */
+    private boolean fill() throws IOException {
+	if (tok == cb) {
+	    // the window is about to be overwritten, save the current token
+	    tokLen = append(0, tokOff, tokOff + tokLen);
+	    tok = buf;
+	    tokOff = 0;
+	}
+	int n;
+	do {
+	    n = reader.read(cb, 0, cb.length);
+	} while (n == 0);
+	pos = 0;
+	lim = n < 0 ? 0 : n;
+	return n > 0;
+    }
+
+    /**
+     * Copy the chars <code>cb[start..end[</code> at index <code>i</code>
+     * of <code>buf</code>, growing it as needed.
+     *
+     * @return the new length of the chars in <code>buf</code>.
+     */
+    private int append(int i, int start, int end) {
+	int n = end - start;
+	if (i + n > buf.length) {
+	    char nb[] = new char[Math.max(i + n, 2 * buf.length)];
+	    System.arraycopy(buf, 0, nb, 0, i);
+	    buf = nb;
+	}
+	System.arraycopy(cb, start, buf, i, n);
+	return i + n;
+    }
+
+    /**
+     * Account for the separator left pending by the last token or line.
+     *
+     * @return <code>false</code> if the end of the stream is reached.
+     */
+    private boolean settle() throws IOException {
+	int c = lastChar;
+	lastChar = NEED_CHAR;
+	if (c == '\n' || c == '\r') ligne++;
+	if (c == '\r' || c == SKIP_LF) {
+	    if (pos >= lim && !fill()) return false;
+	    if (cb[pos] == '\n') pos++;
+	}
+	return true;
     }
 
     /**
      * Read a single character.
      */
     public int read() throws IOException {
-	return reader.read();
+	if (lastChar == SKIP_LF) {
+	    lastChar = NEED_CHAR;
+	    if (pos >= lim && !fill()) return EOF;
+	    if (cb[pos] == '\n') pos++;
+	}
+	if (pos >= lim && !fill()) return EOF;
+	return cb[pos++];
     }
 
     public int nextToken() {
 	try {
 	    theToken = null;
+	    tok = null;
+	    nfields = 0;
 
-	    int c = lastChar;
-	    if (c < 0) c = NEED_CHAR;
-	    if (c == NEED_CHAR) {
-		c = read();
-		if (c < 0) return EOF;
+	    if (!settle() || !skipBlanks()) return EOF;
+
+	    int start = pos;
+	    int i = 0;
+	    for (;;) {
+		while (pos < lim && cb[pos] > ' ') pos++;
+		if (pos < lim) break;
+		// the token goes on past the end of the window
+		i = append(i, start, pos);
+		boolean more = fill();
+		start = pos;
+		if (!more) break;
 	    }
-	    
-	    lastChar = NEED_CHAR;
-	    
-	    int ctype = c <= ' ' ? BLANK : ALPHA;
-	    while ((ctype & BLANK) != 0) {
-		if (c == '\r') {
-		    ligne++;
-		    c = read();
-		    if (c == '\n') c = read();
-		} else {
-		    if (c == '\n') ligne++;
-		    c = read();
-		}
-		if (c < 0) return EOF;
-		ctype = c <= ' ' ? BLANK : ALPHA;
+	    if (i == 0) {
+		tok = cb;
+		tokOff = start;
+		tokLen = pos - start;
+	    } else {
+		tokLen = append(i, start, pos);
+		tok = buf;
+		tokOff = 0;
 	    }
+	    lastChar = pos < lim ? cb[pos++] : EOF;
+	    return TOKEN;
+	} catch (IOException ioe) {
+	    return EOF;
+	}
+    }
+
+    /**
+     * Skip the blanks before the next token, counting lines.
+     *
+     * @return <code>false</code> if the end of the stream is reached,
+     * otherwise <code>cb[pos]</code> is the first char of the token.
+     */
+    private boolean skipBlanks() throws IOException {
+	for (;;) {
+	    if (pos >= lim && !fill()) return false;
+	    int c = cb[pos];
+	    if (c > ' ') return true;
+	    pos++;
+	    if (c == '\r') {
+		ligne++;
+		if (pos >= lim && !fill()) return false;
+		if (cb[pos] == '\n') pos++;
+	    } else if (c == '\n') {
+		ligne++;
+	    }
+	}
+    }
+
+    /**
+     * Find the end of the next token when it lies entirely in the window,
+     * and make it the current token.
+     *
+     * @return the index just past the token in <code>cb</code>,
+     * <code>EOF</code> at the end of the stream, or <code>CROSSING</code>
+     * if the token may go on in the next block: the caller then reads it
+     * with <code>nextToken()</code>.
+     */
+    private int scanWindowToken() throws IOException {
+	theToken = null;
+	tok = null;
+	if (!settle() || !skipBlanks()) return EOF;
+	char a[] = cb;
+	int start = pos, end = start, l = lim;
+	while (end < l && a[end] > ' ') end++;
+	if (end == l) return CROSSING;
+	tok = a;
+	tokOff = start;
+	tokLen = end - start;
+	lastChar = a[end];
+	pos = end + 1;
+	return end;
+    }
+
+    /**
+     * Read the rest of the current line. The line ends with
+     * <code>\n</code>, <code>\r\n</code> or <code>\r</code>, which is not
+     * part of the returned string. A pending separator left by the last
+     * token is consumed first, and the line count is kept up to date.
+     *
+     * @return the line, or <code>null</code> at the end of the stream.
+     */
+    public String readLine() {
+	if (!scanLine()) return null;
+	String line = new String(tok, tokOff, tokLen);
+	tok = null;
+	return line;
+    }
+
+    /**
+     * Make the current token the rest of the current line, as a single
+     * slice of the window or of buf.
+     *
+     * @return <code>false</code> at the end of the stream.
+     */
+    private boolean scanLine() {
+	try {
+	    theToken = null;
+	    tok = null;
+	    nfields = 0;
 
+	    if (!settle() || (pos >= lim && !fill())) return false;
+
+	    int c = NEED_CHAR;
+	    int start = pos;
 	    int i = 0;
-	    do {
-		if (i >= buf.length) {
-		    char nb[] = new char[buf.length + 80];
-		    System.arraycopy(buf, 0, nb, 0, buf.length);
-		    buf = nb;
+	    for (;;) {
+		while (pos < lim && (c = cb[pos]) != '\n' && c != '\r') pos++;
+		if (pos < lim) break;
+		// the line goes on past the end of the window
+		i = append(i, start, pos);
+		boolean more = fill();
+		start = pos;
+		if (!more) break;
+	    }
+	    if (i == 0) {
+		tok = cb;
+		tokOff = start;
+		tokLen = pos - start;
+	    } else {
+		tokLen = append(i, start, pos);
+		tok = buf;
+		tokOff = 0;
+	    }
+	    if (pos < lim) {
+		pos++;
+		ligne++;
+		if (c == '\r') {
+		    if (pos >= lim) {
+			// a \n may follow in the next block
+			lastChar = SKIP_LF;
+		    } else if (cb[pos] == '\n') {
+			pos++;
+		    }
 		}
-		buf[i++] = (char) c;
-		c = read();
-		ctype = c <= ' ' ? BLANK : ALPHA;
-	    } while ((ctype & ALPHA) != 0);
-	    lastChar = c;
-	    theToken = String.copyValueOf(buf, 0, i);
-	    return TOKEN;
+	    }
+	    return true;
 	} catch (IOException ioe) {
-	    return EOF;
+	    return false;
+	}
+    }
+
+    /**
+     * Set the chars separating the fields of a record.
+     *
+     * @param delimiters the delimiter chars, "," by default.
+     * @see #readRecord()
+     */
+    public void setDelimiters(String delimiters) {
+	int max = 0;
+	for (int k = 0; k < delimiters.length(); k++) {
+	    max = Math.max(max, delimiters.charAt(k));
+	}
+	boolean table[] = new boolean[max + 1];
+	for (int k = 0; k < delimiters.length(); k++) {
+	    table[delimiters.charAt(k)] = true;
+	}
+	delims = table;
+    }
+
+    /**
+     * Read the rest of the current line as a record of fields separated
+     * by the delimiters. No quoting is recognized: every delimiter char
+     * ends a field. The fields stay in the tokenizer buffers and are only
+     * valid until the next read.
+     *
+     * @return the number of fields (at least 1), or <code>EOF</code>.
+     * @see #field(int)
+     */
+    public int readRecord() {
+	if (!scanLine()) return EOF;
+	boolean table[] = delims;
+	int n = table.length;
+	int end = tokOff + tokLen;
+	int start = tokOff;
+	for (int k = tokOff; k < end; k++) {
+	    char c = tok[k];
+	    if (c < n && table[c]) {
+		addField(start, k);
+		start = k + 1;
+	    }
+	}
+	addField(start, end);
+	return nfields;
+    }
+
+    private void addField(int start, int end) {
+	if (nfields == bounds.length / 2) {
+	    int nb[] = new int[2 * bounds.length];
+	    System.arraycopy(bounds, 0, nb, 0, bounds.length);
+	    bounds = nb;
+	}
+	bounds[2 * nfields] = start;
+	bounds[2 * nfields + 1] = end;
+	nfields++;
+    }
+
+    /**
+     * The number of fields of the last record read.
+     */
+    public int fieldCount() {
+	return nfields;
+    }
+
+    /**
+     * A view of the <code>i</code>th field (from 0) of the last record.
+     * The same view object is returned for a given index until the next
+     * record is read; use <code>toString()</code> to keep its content.
+     */
+    public CharSequence field(int i) {
+	if (i < 0 || i >= nfields) throw new IndexOutOfBoundsException("field " + i);
+	if (i >= views.length) {
+	    Field nv[] = new Field[Math.max(i + 1, 2 * views.length)];
+	    System.arraycopy(views, 0, nv, 0, views.length);
+	    views = nv;
+	}
+	Field f = views[i];
+	if (f == null) f = views[i] = new Field();
+	f.a = tok;
+	f.off = bounds[2 * i];
+	f.len = bounds[2 * i + 1] - f.off;
+	return f;
+    }
+
+    /**
+     * Convert the <code>i</code>th field of the last record to an
+     * <code>int</code>, ignoring surrounding blanks. On failure, 0 is
+     * returned and <code>hasFormatError()</code> returns <code>true</code>.
+     */
+    public int fieldAsInt(int i) {
+	trimField(i);
+	return parser.parseInt(tok, fieldOff, fieldLen);
+    }
+
+    /**
+     * Convert the <code>i</code>th field of the last record to a
+     * <code>long</code>.
+     * @see #fieldAsInt(int)
+     */
+    public long fieldAsLong(int i) {
+	trimField(i);
+	return parser.parseLong(tok, fieldOff, fieldLen);
+    }
+
+    /**
+     * Convert the <code>i</code>th field of the last record to a
+     * <code>double</code>.
+     * @see #fieldAsInt(int)
+     */
+    public double fieldAsDouble(int i) {
+	trimField(i);
+	return parser.parseDouble(tok, fieldOff, fieldLen);
+    }
+
+    /**
+     * Set <code>fieldOff</code> and <code>fieldLen</code> to the
+     * <code>i</code>th field without its surrounding blanks.
+     */
+    private void trimField(int i) {
+	if (i < 0 || i >= nfields) throw new IndexOutOfBoundsException("field " + i);
+	int start = bounds[2 * i];
+	int end = bounds[2 * i + 1];
+	while (start < end && tok[start] <= ' ') start++;
+	while (end > start && tok[end - 1] <= ' ') end--;
+	fieldOff = start;
+	fieldLen = end - start;
+    }
+
+    /**
+     * A field of a record, viewed in place.
+     */
+    private static final class Field implements CharSequence {
+	char a[];
+	int off;
+	int len;
+
+	public int length() {
+	    return len;
 	}
+
+	public char charAt(int index) {
+	    if (index < 0 || index >= len) throw new IndexOutOfBoundsException("index " + index);
+	    return a[off + index];
+	}
+
+	public CharSequence subSequence(int start, int end) {
+	    if (start < 0 || end > len || start > end) {
+		throw new IndexOutOfBoundsException("range " + start + ", " + end);
+	    }
+	    return new String(a, off + start, end - start);
+	}
+
+	public String toString() {
+	    return new String(a, off, len);
+	}
+    }
+
+    /**
+     * Close the underlying stream.
+     */
+    public void close() throws IOException {
+	reader.close();
     }
 
     public String currentToken() {
+	if (theToken == null && tok != null) {
+	    theToken = cache == null ? new String(tok, tokOff, tokLen) : intern();
+	}
 	return theToken;
     }
 
+    /**
+     * Add one to the count of the current token. The token is only turned
+     * into a String when the counter does not know it yet.
+     */
+    public void countToken(StringCounter counter) {
+	if (tok != null) counter.add(tok, tokOff, tokLen, 1);
+    }
+
+    /**
+     * Look the current token up in the cache before building a String.
+     * The cache is direct-mapped: a miss replaces the entry in its slot.
+     */
+    private String intern() {
+	int h = 0;
+	for (int k = tokOff, end = tokOff + tokLen; k < end; k++) {
+	    h = 31 * h + tok[k];
+	}
+	int i = (h ^ (h >>> 16)) & (cache.length - 1);
+	String s = cache[i];
+	if (s != null && s.hashCode() == h && s.length() == tokLen) {
+	    int k = 0;
+	    while (k < tokLen && s.charAt(k) == tok[tokOff + k]) k++;
+	    if (k == tokLen) {
+		hits++;
+		return s;
+	    }
+	}
+	misses++;
+	s = new String(tok, tokOff, tokLen);
+	cache[i] = s;
+	return s;
+    }
+
+    /**
+     * Make token strings come from a bounded cache, so that a token
+     * repeated many times yields the same String instance.
+     *
+     * @param size the number of cached strings (rounded up to a power
+     * of two), 0 to disable the cache.
+     */
+    public void setInternCache(int size) {
+	if (size <= 0) {
+	    cache = null;
+	} else {
+	    int n = 1;
+	    while (n < size && n < (1 << 30)) n <<= 1;
+	    cache = new String[n];
+	}
+	hits = misses = 0;
+    }
+
+    /**
+     * The number of tokens found in the cache.
+     */
+    public long getInternHits() {
+	return hits;
+    }
+
+    /**
+     * The number of tokens not found in the cache.
+     */
+    public long getInternMisses() {
+	return misses;
+    }
+
+    /**
+     * Convert the current token to an <code>int</code> without building
+     * a String. On failure, 0 is returned and <code>hasFormatError()</code>
+     * returns <code>true</code>.
+     */
+    public int intValue() {
+	if (tok == null) return parser.parseInt(buf, 0, 0);
+	return parser.parseInt(tok, tokOff, tokLen);
+    }
+
+    /**
+     * Convert the current token to a <code>long</code>.
+     * @see #intValue()
+     */
+    public long longValue() {
+	if (tok == null) return parser.parseLong(buf, 0, 0);
+	return parser.parseLong(tok, tokOff, tokLen);
+    }
+
+    /**
+     * Convert the current token to a <code>float</code>.
+     * @see #intValue()
+     */
+    public float floatValue() {
+	if (tok == null) return parser.parseFloat(buf, 0, 0);
+	return parser.parseFloat(tok, tokOff, tokLen);
+    }
+
+    /**
+     * Convert the current token to a <code>double</code>.
+     * @see #intValue()
+     */
+    public double doubleValue() {
+	if (tok == null) return parser.parseDouble(buf, 0, 0);
+	return parser.parseDouble(tok, tokOff, tokLen);
+    }
+
+    /**
+     * Tell whether the last numeric conversion of a token failed.
+     */
+    public boolean hasFormatError() {
+	return parser.failed();
+    }
+
+    /**
+     * Read up to <code>len</code> tokens as <code>int</code> values into
+     * <code>dst[off..off+len[</code>. Reading stops at the end of the stream
+     * or on the first malformed token (which is consumed); in the latter
+     * case <code>hasFormatError()</code> returns <code>true</code>.
+     * Tokens lying in the window are scanned and converted in place; only
+     * a token crossing a refill goes through <code>nextToken()</code>.
+     *
+     * @return the number of values stored.
+     */
+    public int readInts(int dst[], int off, int len) {
+	int n = 0;
+	// an earlier failure must not be mistaken for the reason this run stops
+	parser.clear();
+	nfields = 0;
+	try {
+	    while (n < len) {
+		int v;
+		int end = scanWindowToken();
+		if (end >= 0) {
+		    v = scanInt(cb, tokOff, end);
+		} else if (end == CROSSING && nextToken() == TOKEN) {
+		    v = parser.parseInt(tok, tokOff, tokLen);
+		} else {
+		    break;
+		}
+		if (parser.failed()) break;
+		dst[off + n++] = v;
+	    }
+	} catch (IOException ioe) {
+	}
+	return n;
+    }
+
+    /**
+     * Convert <code>a[start..end[</code>, a plain decimal of at most 9
+     * digits, by accumulating its digits; anything else is left to the
+     * parser.
+     */
+    private int scanInt(char a[], int start, int end) {
+	int i = start;
+	boolean neg = a[i] == '-';
+	if (neg || a[i] == '+') i++;
+	if (i == end || end - i > 9) return parser.parseInt(a, start, end - start);
+	int v = 0;
+	for (; i < end; i++) {
+	    int d = a[i] - '0';
+	    if (d < 0 || d > 9) return parser.parseInt(a, start, end - start);
+	    v = 10 * v + d;
+	}
+	return neg ? -v : v;
+    }
+
+    /**
+     * Read up to <code>len</code> tokens as <code>long</code> values.
+     * @see #readInts(int[], int, int)
+     */
+    public int readLongs(long dst[], int off, int len) {
+	int n = 0;
+	parser.clear();
+	nfields = 0;
+	try {
+	    while (n < len) {
+		long v;
+		int end = scanWindowToken();
+		if (end >= 0) {
+		    v = scanLong(cb, tokOff, end);
+		} else if (end == CROSSING && nextToken() == TOKEN) {
+		    v = parser.parseLong(tok, tokOff, tokLen);
+		} else {
+		    break;
+		}
+		if (parser.failed()) break;
+		dst[off + n++] = v;
+	    }
+	} catch (IOException ioe) {
+	}
+	return n;
+    }
+
+    /**
+     * Convert <code>a[start..end[</code>, a plain decimal of at most 18
+     * digits, by accumulating its digits.
+     * @see #scanInt(char[], int, int)
+     */
+    private long scanLong(char a[], int start, int end) {
+	int i = start;
+	boolean neg = a[i] == '-';
+	if (neg || a[i] == '+') i++;
+	if (i == end || end - i > 18) return parser.parseLong(a, start, end - start);
+	long v = 0;
+	for (; i < end; i++) {
+	    int d = a[i] - '0';
+	    if (d < 0 || d > 9) return parser.parseLong(a, start, end - start);
+	    v = 10 * v + d;
+	}
+	return neg ? -v : v;
+    }
+
+    /**
+     * Read up to <code>len</code> tokens as <code>double</code> values.
+     * The tokens are found in place like those of <code>readInts</code>,
+     * and converted by the parser.
+     * @see #readInts(int[], int, int)
+     */
+    public int readDoubles(double dst[], int off, int len) {
+	int n = 0;
+	parser.clear();
+	nfields = 0;
+	try {
+	    while (n < len) {
+		double v;
+		int end = scanWindowToken();
+		if (end >= 0) {
+		    v = parser.parseDouble(cb, tokOff, end - tokOff);
+		} else if (end == CROSSING && nextToken() == TOKEN) {
+		    v = parser.parseDouble(tok, tokOff, tokLen);
+		} else {
+		    break;
+		}
+		if (parser.failed()) break;
+		dst[off + n++] = v;
+	    }
+	} catch (IOException ioe) {
+	}
+	return n;
+    }
+
     public int lineno() {
 	return ligne;
     }
 
     public String toString() {
-	return "Le token est " + theToken + " en ligne " + ligne;
+	return "Le token est " + currentToken() + " en ligne " + ligne;
     }
 
 }
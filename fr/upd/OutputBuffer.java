@@ -0,0 +1,219 @@
+package fr.upd;
+import java.io.*;
+
+/**
+ * Un tampon de caractères devant un flot de sortie, qui n'est écrit qu'une
+ * fois plein ou à la demande.
+ * <P>
+ * Contrairement à <code>PrintStream</code>, aucune écriture n'est
+ * synchronisée ni suivie d'un vidage à chaque fin de ligne. Comme pour
+ * <code>PrintWriter</code>, les erreurs d'écriture ne lèvent pas
+ * d'exception : elles sont mémorisées et se consultent par
+ * <code>checkError()</code>.
+ * <P>
+ * Un tampon n'est pas partageable entre plusieurs threads.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+final class OutputBuffer {
+  static final int BUFFER_SIZE = 1 << 16;
+  private static final String NEWLINE = System.getProperty("line.separator");
+  /**
+   * Puissances de 10 représentables exactement en <code>double</code>.
+   */
+  private static final double POW10[] = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17
+  };
+  /**
+   * Au-delà de ce nombre de chiffres significatifs, l'écriture d'un réel
+   * est laissée à <code>Double.toString</code>.
+   */
+  private static final double MAX_MANTISSA = 1e15;
+
+  private final Writer writer;
+  private char buf[];
+  private int count = 0;
+  private boolean error = false;
+
+  /**
+   * Crée un tampon devant un flot d'octets ; les caractères sont codés
+   * dans le codage par défaut.
+   * @param out le flot de sortie
+   */
+  OutputBuffer(OutputStream out) {
+    this(new OutputStreamWriter(out),BUFFER_SIZE);
+  }
+
+  /**
+   * Crée un tampon de taille donnée devant un flot de caractères.
+   * @param writer le flot de sortie
+   * @param size la taille du tampon
+   */
+  OutputBuffer(Writer writer,int size) {
+    if (writer==null) throw new NullPointerException();
+    this.writer = writer;
+    buf = new char[size];
+  }
+
+  /**
+   * Écrit le contenu du tampon sur le flot, sans vider ce dernier.
+   */
+  private void drain() {
+    if (count==0) return;
+    try {
+      writer.write(buf,0,count);
+    } catch(IOException ex) {
+      error = true;
+    }
+    count = 0;
+  }
+
+  OutputBuffer append(char c) {
+    if (count==buf.length) drain();
+    buf[count++] = c;
+    return this;
+  }
+
+  OutputBuffer append(String s) {
+    if (s==null) s = "null";
+    int n = s.length();
+    int i = 0;
+    while (i<n) {
+      if (count==buf.length) drain();
+      int k = Math.min(n-i,buf.length-count);
+      s.getChars(i,i+k,buf,count);
+      count += k;
+      i += k;
+    }
+    return this;
+  }
+
+  OutputBuffer append(char c[],int off,int len) {
+    if (len>buf.length) {
+      drain();
+      try {
+        writer.write(c,off,len);
+      } catch(IOException ex) {
+        error = true;
+      }
+      return this;
+    }
+    if (len>buf.length-count) drain();
+    System.arraycopy(c,off,buf,count,len);
+    count += len;
+    return this;
+  }
+
+  /**
+   * Écrit un entier en décimal, sans créer de chaîne.
+   */
+  OutputBuffer append(int i) {
+    return append((long)i);
+  }
+
+  /**
+   * Écrit un entier long en décimal, sans créer de chaîne.
+   */
+  OutputBuffer append(long l) {
+    if (buf.length-count<20) drain();
+    // chiffres calculés en négatif, pour traiter aussi Long.MIN_VALUE
+    long q = l;
+    if (l<0) buf[count++] = '-';
+    else q = -l;
+    int len = 1;
+    for (long t=q/10; t!=0; t/=10) len++;
+    int p = count += len;
+    do {
+      buf[--p] = (char)('0'-q%10);
+      q /= 10;
+    } while (q!=0);
+    return this;
+  }
+
+  /**
+   * Écrit un réel exactement comme <code>Double.toString</code>. Les
+   * réels de notation décimale courte (au plus 15 chiffres significatifs,
+   * entre 10<sup>-3</sup> et 10<sup>7</sup>) sont écrits directement ;
+   * les autres passent par <code>Double.toString</code>.
+   */
+  OutputBuffer append(double d) {
+    if (!appendDecimal(d)) append(Double.toString(d));
+    return this;
+  }
+
+  /**
+   * Cherche la plus petite échelle <code>k</code> telle que
+   * <code>m/10<sup>k</sup></code> redonne <code>|d|</code>, <code>m</code>
+   * entier. La division étant correctement arrondie, l'écriture décimale
+   * de <code>m/10<sup>k</sup></code> se relit bien en <code>d</code>.
+   * @return <code>false</code> si le réel n'a pas été écrit.
+   */
+  private boolean appendDecimal(double d) {
+    double a = Math.abs(d);
+    if (a==0) {
+      append(1/d<0 ? "-0.0" : "0.0");
+      return true;
+    }
+    if (!(a>=1e-3 && a<1e7)) return false;
+    for (int k=1; k<POW10.length; k++) {
+      double m = Math.rint(a*POW10[k]);
+      if (m>=MAX_MANTISSA) return false;
+      if (m/POW10[k]==a) {
+        if (buf.length-count<24) drain();
+        if (d<0) buf[count++] = '-';
+        long q = (long)m;
+        int len = 1;
+        for (long t=q/10; t!=0; t/=10) len++;
+        int p = count += Math.max(1,len-k)+1+k;
+        for (int j=0; j<k; j++) {
+          buf[--p] = (char)('0'+q%10);
+          q /= 10;
+        }
+        buf[--p] = '.';
+        do {
+          buf[--p] = (char)('0'+q%10);
+          q /= 10;
+        } while (q!=0);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  OutputBuffer newLine() {
+    return append(NEWLINE);
+  }
+
+  /**
+   * Écrit le contenu du tampon et vide le flot.
+   */
+  void flush() {
+    drain();
+    try {
+      writer.flush();
+    } catch(IOException ex) {
+      error = true;
+    }
+  }
+
+  /**
+   * Écrit le contenu du tampon et ferme le flot.
+   */
+  void close() {
+    drain();
+    try {
+      writer.close();
+    } catch(IOException ex) {
+      error = true;
+    }
+  }
+
+  /**
+   * Indique si une erreur d'écriture s'est produite.
+   */
+  boolean checkError() {
+    return error;
+  }
+}
@@ -0,0 +1,134 @@
+package fr.upd;
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * Un flot de caractères lisant sa source par anticipation dans un thread
+ * séparé, de sorte que l'attente des entrées se recouvre avec leur
+ * traitement.
+ * <P>
+ * Les caractères sont lus par blocs, dans un anneau borné de tampons
+ * recyclés : lorsque tous les blocs sont pleins, le thread de lecture
+ * attend que le lecteur en ait consommé un. La fin de flot et les erreurs
+ * de la source sont restituées au lecteur dans l'ordre. Le thread ne
+ * démarre qu'à la première lecture : un flot jamais lu ne prend rien à sa
+ * source.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+final class PrefetchReader extends Reader {
+  /**
+   * Un bloc de caractères lus ; <code>n</code> vaut <code>-1</code> en fin
+   * de flot.
+   */
+  private static final class Block {
+    final char chars[];
+    int n;
+    Block(int size) {
+      chars = new char[size];
+    }
+  }
+
+  private final Reader source;
+  private final BlockingQueue<Block> full;
+  private final BlockingQueue<Block> free;
+  private final Thread reader;
+  /**
+   * Le bloc en cours de lecture et la position du prochain caractère.
+   */
+  private Block current = null;
+  private int pos = 0;
+  /**
+   * L'erreur rencontrée par le thread de lecture.
+   */
+  private volatile IOException failure = null;
+  private volatile boolean closed = false;
+  private boolean started = false;
+
+  /**
+   * Crée un flot lisant la source par anticipation.
+   * @param source le flot à lire
+   * @param blockSize la taille d'un bloc
+   * @param blocks le nombre de blocs de l'anneau
+   */
+  PrefetchReader(Reader source,int blockSize,int blocks) {
+    if (source==null) throw new NullPointerException();
+    this.source = source;
+    full = new ArrayBlockingQueue<Block>(blocks);
+    free = new ArrayBlockingQueue<Block>(blocks);
+    for (int i=0; i<blocks; i++) free.add(new Block(blockSize));
+    reader = new Thread(new Runnable() {
+        public void run() {
+          fetch();
+        }
+      },"Facile-prefetch");
+    reader.setDaemon(true);
+  }
+
+  /**
+   * Le travail du thread de lecture : remplir les blocs libres jusqu'à la
+   * fin de la source.
+   */
+  private void fetch() {
+    try {
+      for (;;) {
+        Block b = free.take();
+        int n;
+        try {
+          do {
+            n = source.read(b.chars,0,b.chars.length);
+          } while (n==0);
+        } catch(IOException ex) {
+          failure = ex;
+          n = -1;
+        } catch(RuntimeException ex) {
+          // par exemple un décompresseur fermé pendant la lecture
+          failure = new IOException(ex);
+          n = -1;
+        }
+        b.n = n;
+        full.put(b);
+        if (n<0) return;
+      }
+    } catch(InterruptedException ex) {
+      // fermeture du flot
+    }
+  }
+
+  public int read(char c[],int off,int len) throws IOException {
+    if (closed) throw new IOException("Stream closed");
+    if (len==0) return 0;
+    if (!started) {
+      started = true;
+      reader.start();
+    }
+    if (current!=null && current.n<0) return -1;
+    if (current==null || pos==current.n) {
+      if (current!=null) free.add(current);
+      try {
+        current = full.take();
+      } catch(InterruptedException ex) {
+        current = null;
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+      pos = 0;
+      if (current.n<0) {
+        if (failure!=null) throw failure;
+        return -1;
+      }
+    }
+    int n = Math.min(len,current.n-pos);
+    System.arraycopy(current.chars,pos,c,off,n);
+    pos += n;
+    return n;
+  }
+
+  public void close() throws IOException {
+    if (closed) return;
+    closed = true;
+    reader.interrupt();
+    source.close();
+  }
+}
@@ -0,0 +1,197 @@
+package fr.upd;
+import java.util.function.*;
+
+/**
+ * Un compteur associant un entier long à des chaînes de caractères, par
+ * exemple pour compter les mots d'un texte.
+ * <P>
+ * Les comptes sont rangés dans une table à adressage ouvert, sans objet
+ * intermédiaire : incrémenter le compte d'une clé déjà présente ne crée
+ * aucun objet, y compris lorsque le mot provient directement du tampon de
+ * lecture (<CODE>Facile.compterLesMots</CODE>). Plusieurs compteurs
+ * remplis en parallèle se regroupent par <CODE>merge</CODE>.
+ * <PRE>
+ *	StringCounter c = new StringCounter();
+ *	Facile.compterLesMots(c);
+ *	for (String mot : c.topK(10)) Facile.println(mot+" "+c.get(mot));
+ * </PRE>
+ * Un compteur n'est pas partageable entre plusieurs threads.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ * @since 0.4
+ */
+public final class StringCounter {
+  private String keys[];
+  private int hashes[];
+  private long counts[];
+  private int size = 0;
+
+  public StringCounter() {
+    this(16);
+  }
+
+  /**
+   * Crée un compteur prévu pour le nombre de clés donné.
+   */
+  public StringCounter(int expected) {
+    int n = 16;
+    while (n<2*expected && n<(1<<30)) n <<= 1;
+    keys = new String[n];
+    hashes = new int[n];
+    counts = new long[n];
+  }
+
+  private static int mix(int h) {
+    h *= 0x9E3779B9;
+    return h^(h>>>16);
+  }
+
+  /**
+   * Cherche la case de la clé <code>a[off..off+len[</code>, de code de
+   * hachage <code>h</code> : celle qui la contient, ou la case vide où
+   * l'insérer.
+   */
+  private int slot(char a[],int off,int len,int h) {
+    int mask = keys.length-1;
+    int i = mix(h)&mask;
+    for (;;) {
+      String k = keys[i];
+      if (k==null) return i;
+      if (hashes[i]==h && k.length()==len) {
+        int j = 0;
+        while (j<len && k.charAt(j)==a[off+j]) j++;
+        if (j==len) return i;
+      }
+      i = (i+1)&mask;
+    }
+  }
+
+  private int slot(String s,int h) {
+    int mask = keys.length-1;
+    int i = mix(h)&mask;
+    for (;;) {
+      String k = keys[i];
+      if (k==null || (hashes[i]==h && k.equals(s))) return i;
+      i = (i+1)&mask;
+    }
+  }
+
+  /**
+   * Ajoute <code>n</code> au compte de la clé formée des caractères
+   * <code>a[off..off+len[</code>. La chaîne n'est créée que si la clé est
+   * nouvelle.
+   */
+  void add(char a[],int off,int len,long n) {
+    int h = 0;
+    for (int j=off, end=off+len; j<end; j++) h = 31*h+a[j];
+    int i = slot(a,off,len,h);
+    if (keys[i]!=null) {
+      counts[i] += n;
+      return;
+    }
+    keys[i] = new String(a,off,len);
+    hashes[i] = h;
+    counts[i] = n;
+    if (++size>keys.length/2) grow();
+  }
+
+  private void put(String s,int h,long n) {
+    int i = slot(s,h);
+    if (keys[i]==null) {
+      keys[i] = s;
+      hashes[i] = h;
+      counts[i] = n;
+      if (++size>keys.length/2) grow();
+    } else {
+      counts[i] += n;
+    }
+  }
+
+  /**
+   * Double la taille de la table.
+   */
+  private void grow() {
+    String ok[] = keys;
+    int oh[] = hashes;
+    long oc[] = counts;
+    int n = 2*ok.length;
+    keys = new String[n];
+    hashes = new int[n];
+    counts = new long[n];
+    int mask = n-1;
+    for (int j=0; j<ok.length; j++) {
+      if (ok[j]==null) continue;
+      int i = mix(oh[j])&mask;
+      while (keys[i]!=null) i = (i+1)&mask;
+      keys[i] = ok[j];
+      hashes[i] = oh[j];
+      counts[i] = oc[j];
+    }
+  }
+
+  /**
+   * Ajoute 1 au compte d'une clé.
+   */
+  public void add(String key) {
+    add(key,1);
+  }
+
+  /**
+   * Ajoute <code>n</code> au compte d'une clé.
+   */
+  public void add(String key,long n) {
+    put(key,key.hashCode(),n);
+  }
+
+  /**
+   * Renvoie le compte d'une clé (<code>0</code> si elle est absente).
+   */
+  public long get(String key) {
+    int i = slot(key,key.hashCode());
+    return keys[i]==null ? 0 : counts[i];
+  }
+
+  /**
+   * Renvoie le nombre de clés distinctes.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Ajoute à ce compteur les comptes d'un autre.
+   */
+  public void merge(StringCounter other) {
+    for (int j=0; j<other.keys.length; j++)
+      if (other.keys[j]!=null) put(other.keys[j],other.hashes[j],other.counts[j]);
+  }
+
+  /**
+   * Applique une action à chaque clé et à son compte, dans un ordre
+   * quelconque.
+   */
+  public void forEach(ObjLongConsumer<String> action) {
+    for (int j=0; j<keys.length; j++)
+      if (keys[j]!=null) action.accept(keys[j],counts[j]);
+  }
+
+  /**
+   * Renvoie les <code>k</code> clés de plus grands comptes, par comptes
+   * décroissants (à égalité, par ordre alphabétique).
+   */
+  public String[] topK(int k) {
+    int top[] = new TopK(Math.min(k,size)) {
+        boolean before(int i,int j) {
+          return counts[i]>counts[j] || (counts[i]==counts[j] && keys[i].compareTo(keys[j])<0);
+        }
+      }.select(keys.length,new IntPredicate() {
+          public boolean test(int i) {
+            return keys[i]!=null;
+          }
+        });
+    String r[] = new String[top.length];
+    for (int j=0; j<top.length; j++) r[j] = keys[top[j]];
+    return r;
+  }
+}
@@ -0,0 +1,129 @@
+package fr.upd;
+
+/**
+ * Un modèle d'affichage, analysé une fois pour toutes, dont les
+ * emplacements <CODE>{}</CODE> sont remplis par des valeurs.
+ * <P>
+ * Les valeurs sont données dans l'ordre des emplacements, puis la ligne
+ * est terminée par <CODE>print()</CODE> ou <CODE>println()</CODE> :
+ * <PRE>
+ *	Template t = Facile.template("x={} y={}");
+ *	for (int i=0; i&lt;n; i++) t.with(x[i]).with(y[i]).println();
+ * </PRE>
+ * Chaque valeur est affichée dès qu'elle est donnée, comme par
+ * <CODE>Facile.print</CODE>, sans concaténation ni conversion préalable
+ * en chaîne. Avec <CODE>Facile.useBufferedOutput()</CODE>, l'affichage
+ * d'entiers et de réels ne crée alors aucun objet.
+ * <P>
+ * Un modèle n'est pas partageable entre plusieurs threads.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ * @since 0.4
+ */
+public final class Template {
+  private final FacileSession session;
+  /**
+   * Les morceaux de texte entourant les emplacements (un de plus que
+   * d'emplacements).
+   */
+  private final char parts[][];
+  /**
+   * Le numéro du prochain morceau à afficher.
+   */
+  private int next = 0;
+
+  Template(FacileSession session,String modele) {
+    if (modele==null) throw new NullPointerException();
+    this.session = session;
+    int n = 0;
+    for (int i=modele.indexOf("{}"); i>=0; i=modele.indexOf("{}",i+2)) n++;
+    parts = new char[n+1][];
+    int start = 0;
+    for (int k=0; k<n; k++) {
+      int i = modele.indexOf("{}",start);
+      parts[k] = modele.substring(start,i).toCharArray();
+      start = i+2;
+    }
+    parts[n] = modele.substring(start).toCharArray();
+  }
+
+  /**
+   * Renvoie le nombre d'emplacements du modèle.
+   */
+  public int getArgumentCount() {
+    return parts.length-1;
+  }
+
+  /**
+   * Affiche le texte précédant l'emplacement suivant. Une valeur de trop
+   * remet le modèle au début avant de lever l'exception, pour qu'il reste
+   * utilisable.
+   */
+  private void literal() {
+    if (next>=parts.length-1) {
+      next = 0;
+      throw new RuntimeException("trop de valeurs pour un modèle à "+(parts.length-1)+" emplacement(s)");
+    }
+    session.write(parts[next++]);
+  }
+
+  public Template with(char c) {
+    literal();
+    session.print(c);
+    return this;
+  }
+  public Template with(boolean b) {
+    literal();
+    session.print(b);
+    return this;
+  }
+  public Template with(int i) {
+    literal();
+    session.print(i);
+    return this;
+  }
+  public Template with(long l) {
+    literal();
+    session.print(l);
+    return this;
+  }
+  public Template with(float f) {
+    literal();
+    session.print(f);
+    return this;
+  }
+  public Template with(double d) {
+    literal();
+    session.print(d);
+    return this;
+  }
+  public Template with(String s) {
+    literal();
+    session.print(s);
+    return this;
+  }
+  public Template with(Object o) {
+    literal();
+    session.print(o);
+    return this;
+  }
+
+  /**
+   * Affiche la fin du modèle ; le modèle est ensuite prêt à être
+   * réutilisé. Les emplacements restés sans valeur sont laissés vides.
+   */
+  public void print() {
+    while (next<parts.length) session.write(parts[next++]);
+    next = 0;
+  }
+
+  /**
+   * Affiche la fin du modèle suivie d'un saut de ligne.
+   * @see #print()
+   */
+  public void println() {
+    print();
+    session.println();
+  }
+}
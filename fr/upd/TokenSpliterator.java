@@ -0,0 +1,196 @@
+package fr.upd;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Découpage des lexèmes (ou des lignes) d'une portion de fichier, pour un
+ * traitement par flux (<code>java.util.stream</code>) éventuellement
+ * parallèle.
+ * <P>
+ * Une portion <code>[lo,hi[</code> se coupe en deux sur un octet blanc
+ * (ou après une fin de ligne <code>\n</code>) proche de son milieu, de
+ * sorte qu'aucun lexème ni aucune ligne n'est coupé. Chaque
+ * portion est lue par son propre <code>MyTokenizer</code> sur une
+ * projection en mémoire du fichier.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+abstract class TokenSpliterator {
+  /**
+   * En dessous de cette taille une portion n'est plus coupée.
+   */
+  private static final long MIN_SPLIT = 1 << 20;
+
+  protected final FileChannel file;
+  protected long lo;
+  protected final long hi;
+  /**
+   * Le découpeur, créé au premier parcours (et plus aucune coupe ensuite).
+   */
+  private MyTokenizer tokenizer = null;
+
+  protected TokenSpliterator(FileChannel file,long lo,long hi) {
+    this.file = file;
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  /**
+   * Cherche la position d'un octet blanc à partir du milieu de la portion.
+   * @return la position trouvée, ou <code>-1</code> si la portion ne doit
+   * pas être coupée.
+   */
+  protected long splitPoint() {
+    return splitPoint(false);
+  }
+
+  /**
+   * Cherche à partir du milieu de la portion la position d'un octet blanc,
+   * ou la position qui suit un <code>\n</code>.
+   * @param lines <code>true</code> pour couper après une fin de ligne
+   * @return la position trouvée, ou <code>-1</code> si la portion ne doit
+   * pas être coupée.
+   */
+  protected long splitPoint(boolean lines) {
+    if (tokenizer!=null || hi-lo<2*MIN_SPLIT) return -1;
+    ByteBuffer bb = ByteBuffer.allocate(4096);
+    long p = lo+(hi-lo)/2;
+    try {
+      while (p<hi) {
+        bb.clear();
+        if (hi-p<bb.capacity()) bb.limit((int)(hi-p));
+        int n = file.read(bb,p);
+        if (n<=0) return -1;
+        for (int i=0; i<n; i++) {
+          byte b = bb.get(i);
+          if (lines) {
+            if (b=='\n') return p+i+1<hi ? p+i+1 : -1;
+          } else if (b>=0 && b<=' ') {
+            return p+i;
+          }
+        }
+        p += n;
+      }
+    } catch(IOException ex) {
+    }
+    return -1;
+  }
+
+  /**
+   * Avance jusqu'au lexème suivant de la portion.
+   * @return le découpeur positionné sur le lexème, ou <code>null</code>
+   * en fin de portion.
+   */
+  protected MyTokenizer next() {
+    return tokenizer().nextToken()==MyTokenizer.TOKEN ? tokenizer : null;
+  }
+
+  protected MyTokenizer tokenizer() {
+    if (tokenizer==null) tokenizer = new MyTokenizer(new ChannelReader(file,lo,hi));
+    return tokenizer;
+  }
+
+  /**
+   * Découpe une portion jusqu'à obtenir des morceaux d'au plus
+   * <code>target</code> octets (ou qui ne se coupent plus).
+   * @return les morceaux, dans l'ordre.
+   */
+  static <T> List<Spliterator<T>> split(Spliterator<T> s,long target) {
+    List<Spliterator<T>> parts = new ArrayList<Spliterator<T>>();
+    Deque<Spliterator<T>> todo = new ArrayDeque<Spliterator<T>>();
+    todo.push(s);
+    while (!todo.isEmpty()) {
+      s = todo.pop();
+      Spliterator<T> prefix = s.estimateSize()>target ? s.trySplit() : null;
+      if (prefix==null) {
+        parts.add(s);
+      } else {
+        todo.push(s);
+        todo.push(prefix);
+      }
+    }
+    return parts;
+  }
+
+  public long estimateSize() {
+    return hi-lo;
+  }
+
+  public int characteristics() {
+    return Spliterator.ORDERED|Spliterator.NONNULL|Spliterator.IMMUTABLE;
+  }
+
+  /**
+   * Les lexèmes en tant que chaînes.
+   */
+  static final class Words extends TokenSpliterator implements Spliterator<String> {
+    Words(FileChannel file,long lo,long hi) {
+      super(file,lo,hi);
+    }
+    public boolean tryAdvance(Consumer<? super String> action) {
+      MyTokenizer t = next();
+      if (t==null) return false;
+      action.accept(t.currentToken());
+      return true;
+    }
+    public Spliterator<String> trySplit() {
+      long p = splitPoint();
+      if (p<0) return null;
+      Spliterator<String> prefix = new Words(file,lo,p);
+      lo = p;
+      return prefix;
+    }
+  }
+
+  /**
+   * Les lexèmes convertis en <code>int</code>. Un lexème qui n'est pas un
+   * entier provoque une <code>NumberFormatException</code>.
+   */
+  static final class Ints extends TokenSpliterator implements Spliterator.OfInt {
+    Ints(FileChannel file,long lo,long hi) {
+      super(file,lo,hi);
+    }
+    public boolean tryAdvance(IntConsumer action) {
+      MyTokenizer t = next();
+      if (t==null) return false;
+      int v = t.intValue();
+      if (t.hasFormatError())
+        throw new NumberFormatException("For input string: \""+t.currentToken()+"\"");
+      action.accept(v);
+      return true;
+    }
+    public Spliterator.OfInt trySplit() {
+      long p = splitPoint();
+      if (p<0) return null;
+      Spliterator.OfInt prefix = new Ints(file,lo,p);
+      lo = p;
+      return prefix;
+    }
+  }
+
+  /**
+   * Les lignes, sans leur fin de ligne.
+   */
+  static final class Lines extends TokenSpliterator implements Spliterator<String> {
+    Lines(FileChannel file,long lo,long hi) {
+      super(file,lo,hi);
+    }
+    public boolean tryAdvance(Consumer<? super String> action) {
+      String line = tokenizer().readLine();
+      if (line==null) return false;
+      action.accept(line);
+      return true;
+    }
+    public Spliterator<String> trySplit() {
+      long p = splitPoint(true);
+      if (p<0) return null;
+      Spliterator<String> prefix = new Lines(file,lo,p);
+      lo = p;
+      return prefix;
+    }
+  }
+}
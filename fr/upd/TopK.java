@@ -0,0 +1,75 @@
+package fr.upd;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Sélection des <code>k</code> meilleures cases d'une table, à l'aide d'un
+ * tas de taille <code>k</code> dont la racine est la moins bonne des cases
+ * retenues.
+ *
+ * @author JBY
+ * @version 0.1, 18/10/2026
+ */
+abstract class TopK {
+  private final int k;
+
+  TopK(int k) {
+    this.k = Math.max(k,0);
+  }
+
+  /**
+   * Indique si la case <code>i</code> passe avant la case <code>j</code>.
+   */
+  abstract boolean before(int i,int j);
+
+  /**
+   * Sélectionne les meilleures des cases <code>[0,n[</code> occupées.
+   * @return les cases sélectionnées, de la meilleure à la moins bonne.
+   */
+  int[] select(int n,IntPredicate used) {
+    int heap[] = new int[k];
+    int size = 0;
+    for (int i=0; i<n; i++) {
+      if (!used.test(i)) continue;
+      if (size<k) {
+        heap[size] = i;
+        up(heap,size++);
+      } else if (k>0 && before(i,heap[0])) {
+        heap[0] = i;
+        down(heap,0,size);
+      }
+    }
+    // la moins bonne case est extraite en premier, et rangée à la fin
+    for (int s=size; s>1; s--) {
+      int t = heap[0];
+      heap[0] = heap[s-1];
+      heap[s-1] = t;
+      down(heap,0,s-1);
+    }
+    return size==k ? heap : Arrays.copyOf(heap,size);
+  }
+
+  private void up(int heap[],int i) {
+    while (i>0) {
+      int p = (i-1)/2;
+      if (!before(heap[p],heap[i])) break;
+      int t = heap[p];
+      heap[p] = heap[i];
+      heap[i] = t;
+      i = p;
+    }
+  }
+
+  private void down(int heap[],int i,int size) {
+    for (;;) {
+      int c = 2*i+1;
+      if (c>=size) break;
+      if (c+1<size && before(heap[c],heap[c+1])) c++;
+      if (!before(heap[i],heap[c])) break;
+      int t = heap[i];
+      heap[i] = heap[c];
+      heap[c] = t;
+      i = c;
+    }
+  }
+}